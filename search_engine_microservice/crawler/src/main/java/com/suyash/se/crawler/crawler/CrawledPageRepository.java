@@ -1,9 +1,29 @@
 package com.suyash.se.crawler.crawler;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.suyash.se.crawler.dto.CrawledPageSummary;
 
 public interface CrawledPageRepository extends JpaRepository<CrawledPage, Long> {
     boolean existsByUrl(String url);
 
     CrawledPage findByUrl(String nextUrl);
+
+    /**
+     * Load result summaries without touching the content column
+     */
+    @Query("select new com.suyash.se.crawler.dto.CrawledPageSummary(p.id, p.url, p.title, p.shortContent, p.pageRankScore) "
+            + "from crawled_pages p where p.id in :ids")
+    List<CrawledPageSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Load (page id, tag) pairs for the given pages
+     */
+    @Query("select p.id, t from crawled_pages p join p.tags t where p.id in :ids")
+    List<Object[]> findTagsByIdIn(@Param("ids") Collection<Long> ids);
 }
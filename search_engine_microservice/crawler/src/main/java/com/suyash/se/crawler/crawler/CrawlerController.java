@@ -1,6 +1,8 @@
 package com.suyash.se.crawler.crawler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
@@ -12,10 +14,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.suyash.se.crawler.dto.CrawledPageSummary;
 import com.suyash.se.crawler.dto.UrlRequest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -77,6 +81,27 @@ public class CrawlerController {
         }
     }
 
+    @PostMapping("/findByIds")
+    public ResponseEntity<List<CrawledPageSummary>> findByIds(@RequestBody @Size(max = 1000) List<Long> ids) {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                return ResponseEntity.ok(List.of());
+            }
+            List<CrawledPageSummary> summaries = crawledPageRepository.findSummariesByIdIn(ids);
+
+            Map<Long, List<String>> tagsByPage = new HashMap<>();
+            for (Object[] row : crawledPageRepository.findTagsByIdIn(ids)) {
+                tagsByPage.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+            }
+            for (CrawledPageSummary summary : summaries) {
+                summary.setTags(tagsByPage.getOrDefault(summary.getId(), new ArrayList<>()));
+            }
+            return ResponseEntity.ok(summaries);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/findAll")
     public ResponseEntity<java.util.List<CrawledPage>> findAllPages() {
         try {
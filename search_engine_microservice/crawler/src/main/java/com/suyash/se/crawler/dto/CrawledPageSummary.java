@@ -0,0 +1,34 @@
+package com.suyash.se.crawler.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight view of a crawled page used to hydrate search results.
+ * Carries everything a result page needs except the full page content.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawledPageSummary {
+
+    private Long id;
+    private String url;
+    private String title;
+    private String shortContent;
+    private double pageRankScore;
+    private List<String> tags;
+
+    public CrawledPageSummary(Long id, String url, String title, String shortContent, double pageRankScore) {
+        this.id = id;
+        this.url = url;
+        this.title = title;
+        this.shortContent = shortContent;
+        this.pageRankScore = pageRankScore;
+    }
+}
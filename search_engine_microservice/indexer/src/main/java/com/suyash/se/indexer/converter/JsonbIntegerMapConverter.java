@@ -0,0 +1,37 @@
+package com.suyash.se.indexer.converter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.IOException;
+import java.util.Map;
+
+@Converter
+public class JsonbIntegerMapConverter implements AttributeConverter<Map<Integer, Integer>, String> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String convertToDatabaseColumn(Map<Integer, Integer> map) {
+        try {
+            return objectMapper.writeValueAsString(map); // Convert to JSON string
+        } catch (IOException e) {
+            throw new RuntimeException("Error converting map to JSON", e);
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<Integer, Integer>>() {
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Error converting JSON to map", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.suyash.se.indexer.index;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running totals over the whole indexed collection, kept in a single row
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "collection_statistics")
+public class CollectionStatistics {
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long totalDocuments;
+
+    @Column(nullable = false)
+    private long totalLength;
+
+    public double getAverageDocumentLength() {
+        return totalDocuments > 0 ? (double) totalLength / totalDocuments : 0.0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.suyash.se.indexer.index;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CollectionStatisticsRepository extends JpaRepository<CollectionStatistics, Long> {
+
+    /**
+     * Atomically add to the collection totals so concurrent batches do not lose updates
+     */
+    @Transactional
+    @Modifying
+    @Query("update collection_statistics c set c.totalDocuments = c.totalDocuments + :documents, "
+            + "c.totalLength = c.totalLength + :length where c.id = :id")
+    int incrementTotals(@Param("id") Long id, @Param("documents") long documents, @Param("length") long length);
+
+    /**
+     * Create the row with zero totals unless it exists; concurrent callers all
+     * succeed and exactly one row is created
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into collection_statistics (id, total_documents, total_length) values (:id, 0, 0) "
+            + "on conflict (id) do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("id") Long id);
+}
@@ -0,0 +1,30 @@
+package com.suyash.se.indexer.index;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per-document statistics needed for length-normalised scoring
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "document_statistics")
+public class DocumentStatistics {
+    @Id
+    private Integer documentId;
+
+    /**
+     * Number of indexed (non stop word) tokens in the document
+     */
+    @Column(nullable = false)
+    private int length;
+}
@@ -0,0 +1,6 @@
+package com.suyash.se.indexer.index;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DocumentStatisticsRepository extends JpaRepository<DocumentStatistics, Integer> {
+}
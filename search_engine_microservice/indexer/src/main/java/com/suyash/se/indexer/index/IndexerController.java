@@ -30,6 +30,17 @@ public class IndexerController {
         return ResponseEntity.ok(invertedIndexRepository.findByWord(term));
     }
 
+    @PostMapping("findByWords")
+    public ResponseEntity<PostingsResponse> findByWords(@RequestBody List<String> terms) {
+        if (terms == null || terms.isEmpty()) {
+            return ResponseEntity.ok(PostingsResponse.builder()
+                    .postings(List.of())
+                    .documentLengths(Map.of())
+                    .build());
+        }
+        return ResponseEntity.ok(indexerService.findPostings(terms));
+    }
+
     // Admin endpoints
     @PostMapping("admin/reindex")
     public ResponseEntity<String> reindexAll() {
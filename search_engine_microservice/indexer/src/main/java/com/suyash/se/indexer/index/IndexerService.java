@@ -16,6 +16,7 @@ import org.springframework.stereotype.Service;
 
 import com.suyash.se.indexer.crawler.CrawledPage;
 import com.suyash.se.indexer.crawler.CrawlerClient;
+import com.suyash.se.indexer.messaging.IndexingEventPublisher;
 import com.suyash.se.indexer.utils.PageRank;
 
 import lombok.RequiredArgsConstructor;
@@ -26,12 +27,18 @@ public class IndexerService {
 
     private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
     private static final Set<String> STOP_WORDS = Set.of("the", "and", "is", "in", "to", "of", "a", "for");
+    private static final int DOCUMENT_STATISTICS_CHUNK_SIZE = 10_000;
     private final InvertedIndexRepository invertedIndexRepository;
+    private final DocumentStatisticsRepository documentStatisticsRepository;
+    private final CollectionStatisticsRepository collectionStatisticsRepository;
     private final CrawlerClient crawlerClient;
+    private final IndexingEventPublisher indexingEventPublisher;
 
     public void buildIndex(List<CrawledPage> pages) {
         Map<String, Map<Integer, Integer>> termFrequencyMap = new HashMap<>();
         Map<String, Integer> documentFrequencyMap = new HashMap<>();
+        Map<String, Map<Integer, Integer>> firstPositionMap = new HashMap<>();
+        Map<Integer, Integer> documentLengths = new HashMap<>();
 
         // Build adjacency list for links between pages
         Map<Integer, List<Integer>> adjacencyList = new HashMap<>();
@@ -43,16 +50,25 @@ public class IndexerService {
             String[] words = tokenize(content);
 
             Set<String> uniqueWords = new HashSet<>();
-            for (String word : words) {
+            int indexedTokens = 0;
+            for (int position = 0; position < words.length; position++) {
+                String word = words[position];
                 if (!STOP_WORDS.contains(word)) {
                     uniqueWords.add(word);
+                    indexedTokens++;
 
                     // Update term frequency
                     termFrequencyMap.computeIfAbsent(word, k -> new HashMap<>())
                             .merge(docId, 1, Integer::sum);
+
+                    // Remember where the term first occurs
+                    firstPositionMap.computeIfAbsent(word, k -> new HashMap<>())
+                            .putIfAbsent(docId, position);
                 }
             }
 
+            documentLengths.put(docId, indexedTokens);
+
             // Update document frequency
             for (String word : uniqueWords) {
                 documentFrequencyMap.merge(word, 1, Integer::sum);
@@ -72,16 +88,27 @@ public class IndexerService {
         }
 
         // Compute TF-IDF and save to database
-        saveTfIdfToDatabase(termFrequencyMap, documentFrequencyMap, pages.size());
-
-        // Compute PageRank and save to database
-        Map<Integer, Double> pageRankScores = PageRank.calculate(adjacencyList);
-        for (Map.Entry<Integer, Double> entry : pageRankScores.entrySet()) {
-            CrawledPage page = crawlerClient.findById((long) entry.getKey()).orElse(null);
-            if (page != null) {
-                page.setPageRankScore(entry.getValue());
-                crawlerClient.save(page);
+        saveTfIdfToDatabase(termFrequencyMap, documentFrequencyMap, firstPositionMap, pages.size());
+
+        // Maintain document lengths and collection totals for length-normalised scoring
+        saveDocumentStatistics(documentLengths);
+
+        try {
+            // Compute PageRank and save to database
+            Map<Integer, Double> pageRankScores = PageRank.calculate(adjacencyList);
+            for (Map.Entry<Integer, Double> entry : pageRankScores.entrySet()) {
+                CrawledPage page = crawlerClient.findById((long) entry.getKey()).orElse(null);
+                if (page != null) {
+                    page.setPageRankScore(entry.getValue());
+                    crawlerClient.save(page);
+                }
             }
+        } finally {
+            // Let query services evict cached results that depend on the changed postings, only once
+            // the scores are written so they are not recomputed from the old PageRank; the postings
+            // changed even if PageRank failed
+            indexingEventPublisher.publishIndexedTerms(new ArrayList<>(termFrequencyMap.keySet()),
+                    new ArrayList<>(documentLengths.keySet()));
         }
     }
 
@@ -92,7 +119,8 @@ public class IndexerService {
     }
 
     private void saveTfIdfToDatabase(Map<String, Map<Integer, Integer>> termFrequencyMap,
-            Map<String, Integer> documentFrequencyMap, int totalDocuments) {
+            Map<String, Integer> documentFrequencyMap, Map<String, Map<Integer, Integer>> firstPositionMap,
+            int totalDocuments) {
         for (Map.Entry<String, Map<Integer, Integer>> entry : termFrequencyMap.entrySet()) {
             String word = entry.getKey();
             Map<Integer, Integer> tfMap = entry.getValue();
@@ -107,6 +135,8 @@ public class IndexerService {
                 tfidfScores.put(docId, tfIdf);
             }
 
+            Map<Integer, Integer> firstPositions = firstPositionMap.getOrDefault(word, new HashMap<>());
+
             // Save TF-IDF scores to database
             InvertedIndex index = invertedIndexRepository.findByWord(word);
             if (index == null) {
@@ -114,15 +144,100 @@ public class IndexerService {
                         .word(word)
                         .documentIds(new ArrayList<>(tfidfScores.keySet()))
                         .tfidfScores(tfidfScores)
+                        .firstPositions(new HashMap<>(firstPositions))
+                        .termFrequencies(new HashMap<>(tfMap))
                         .build();
             } else {
                 index.getDocumentIds().addAll(tfidfScores.keySet());
                 index.getTfidfScores().putAll(tfidfScores);
+                if (index.getFirstPositions() == null) {
+                    index.setFirstPositions(new HashMap<>());
+                }
+                index.getFirstPositions().putAll(firstPositions);
+                if (index.getTermFrequencies() == null) {
+                    index.setTermFrequencies(new HashMap<>());
+                }
+                index.getTermFrequencies().putAll(tfMap);
             }
+
+            // Per-term upper bounds used by the query service to skip documents
+            index.setMaxScore(index.getTfidfScores().values().stream()
+                    .mapToDouble(Double::doubleValue).max().orElse(0.0));
+            index.setMaxTermFrequency(index.getTermFrequencies().values().stream()
+                    .mapToInt(Integer::intValue).max().orElse(0));
             invertedIndexRepository.save(index);
         }
     }
 
+    private void saveDocumentStatistics(Map<Integer, Integer> documentLengths) {
+        if (documentLengths.isEmpty()) {
+            return;
+        }
+
+        // Pages that were indexed before only change the total length, not the document count
+        Map<Integer, Integer> previousLengths = new HashMap<>();
+        for (DocumentStatistics existing : documentStatisticsRepository.findAllById(documentLengths.keySet())) {
+            previousLengths.put(existing.getDocumentId(), existing.getLength());
+        }
+
+        long addedDocuments = 0;
+        long addedLength = 0;
+        List<DocumentStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : documentLengths.entrySet()) {
+            Integer previousLength = previousLengths.get(entry.getKey());
+            if (previousLength == null) {
+                addedDocuments++;
+                addedLength += entry.getValue();
+            } else {
+                addedLength += entry.getValue() - previousLength;
+            }
+            statistics.add(new DocumentStatistics(entry.getKey(), entry.getValue()));
+        }
+        documentStatisticsRepository.saveAll(statistics);
+
+        int updated = collectionStatisticsRepository.incrementTotals(CollectionStatistics.SINGLETON_ID,
+                addedDocuments, addedLength);
+        if (updated == 0) {
+            // First batch: create the row without overwriting one a concurrent batch just created
+            collectionStatisticsRepository.insertIfAbsent(CollectionStatistics.SINGLETON_ID);
+            collectionStatisticsRepository.incrementTotals(CollectionStatistics.SINGLETON_ID, addedDocuments,
+                    addedLength);
+        }
+    }
+
+    /**
+     * Resolve the postings of the given terms together with the length of every
+     * document they reference and the collection totals, so callers can score
+     * without any further lookups
+     */
+    public PostingsResponse findPostings(List<String> terms) {
+        List<InvertedIndex> postings = invertedIndexRepository.findByWordIn(terms);
+
+        Set<Integer> docIds = new HashSet<>();
+        for (InvertedIndex index : postings) {
+            docIds.addAll(index.getDocumentIds());
+        }
+        // Chunked so common terms stay below PostgreSQL's bind parameter limit
+        Map<Integer, Integer> documentLengths = new HashMap<>(docIds.size() * 2);
+        List<Integer> pending = new ArrayList<>(docIds);
+        for (int from = 0; from < pending.size(); from += DOCUMENT_STATISTICS_CHUNK_SIZE) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + DOCUMENT_STATISTICS_CHUNK_SIZE, pending.size()));
+            for (DocumentStatistics statistics : documentStatisticsRepository.findAllById(chunk)) {
+                documentLengths.put(statistics.getDocumentId(), statistics.getLength());
+            }
+        }
+
+        CollectionStatistics collection = collectionStatisticsRepository.findById(CollectionStatistics.SINGLETON_ID)
+                .orElse(new CollectionStatistics(CollectionStatistics.SINGLETON_ID, 0, 0));
+
+        return PostingsResponse.builder()
+                .postings(postings)
+                .documentLengths(documentLengths)
+                .totalDocuments(collection.getTotalDocuments())
+                .averageDocumentLength(collection.getAverageDocumentLength())
+                .build();
+    }
+
     // Admin operations
     public void reindexAll() {
         // Clear existing index
@@ -149,6 +264,8 @@ public class IndexerService {
     public void clearIndex() {
         // Delete all index entries
         invertedIndexRepository.deleteAll();
+        documentStatisticsRepository.deleteAll();
+        collectionStatisticsRepository.deleteAll();
     }
 
     public Map<String, Object> getIndexStatistics() {
@@ -165,6 +282,11 @@ public class IndexerService {
         stats.put("totalDocuments", totalDocuments);
         stats.put("averageDocumentsPerTerm", totalTerms > 0 ? (double) totalDocuments / totalTerms : 0);
 
+        collectionStatisticsRepository.findById(CollectionStatistics.SINGLETON_ID).ifPresent(collection -> {
+            stats.put("indexedDocuments", collection.getTotalDocuments());
+            stats.put("averageDocumentLength", collection.getAverageDocumentLength());
+        });
+
         return stats;
     }
 
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.hibernate.annotations.Type;
 
+import com.suyash.se.indexer.converter.JsonbIntegerMapConverter;
 import com.suyash.se.indexer.converter.JsonbMapConverter;
 import com.vladmihalcea.hibernate.type.json.JsonType;
 
@@ -46,4 +47,30 @@ public class InvertedIndex {
     @Column(columnDefinition = "JSONB")
     @Convert(converter = JsonbMapConverter.class)
     private Map<Integer, Double> tfidfScores;
+
+    /**
+     * Token offset of the first occurrence of the word in each document
+     */
+    @Type(JsonType.class)
+    @Column(columnDefinition = "JSONB")
+    @Convert(converter = JsonbIntegerMapConverter.class)
+    private Map<Integer, Integer> firstPositions;
+
+    /**
+     * Number of occurrences of the word in each document
+     */
+    @Type(JsonType.class)
+    @Column(columnDefinition = "JSONB")
+    @Convert(converter = JsonbIntegerMapConverter.class)
+    private Map<Integer, Integer> termFrequencies;
+
+    /**
+     * Highest tf-idf weight in this posting list, an upper bound for pruning
+     */
+    private Double maxScore;
+
+    /**
+     * Highest term frequency in this posting list
+     */
+    private Integer maxTermFrequency;
 }
\ No newline at end of file
@@ -1,7 +1,19 @@
 package com.suyash.se.indexer.index;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface InvertedIndexRepository extends JpaRepository<InvertedIndex, Long> {
     InvertedIndex findByWord(String word);
+
+    /**
+     * Resolve the postings of several terms at once, fetching the document ids
+     * in the same statement instead of one collection load per term
+     */
+    @Query("select distinct i from inverted_index i left join fetch i.documentIds where i.word in :words")
+    List<InvertedIndex> findByWordIn(@Param("words") Collection<String> words);
 }
@@ -0,0 +1,30 @@
+package com.suyash.se.indexer.index;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Postings for a set of terms together with the statistics needed to score them
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingsResponse {
+
+    private List<InvertedIndex> postings;
+
+    /**
+     * Length of every document referenced by the postings
+     */
+    private Map<Integer, Integer> documentLengths;
+
+    private long totalDocuments;
+
+    private double averageDocumentLength;
+}
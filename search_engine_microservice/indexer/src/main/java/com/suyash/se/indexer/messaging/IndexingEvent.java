@@ -0,0 +1,25 @@
+package com.suyash.se.indexer.messaging;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published after each indexed batch so that consumers can drop whatever they
+ * derived from the postings of the changed terms. A batch that changed many
+ * terms is announced as several events, each listing a share of them.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexingEvent {
+
+    private String eventId;
+    private List<String> terms;
+    private List<Integer> documentIds;
+    private long timestamp;
+}
@@ -0,0 +1,78 @@
+package com.suyash.se.indexer.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexingEventPublisher {
+
+    private static final String INDEXING_EVENTS_TOPIC = "indexing-events";
+    // Keeps each record well below the producer's default 1 MB max.request.size
+    private static final int MAX_TERMS_PER_EVENT = 1_000;
+    private static final int MAX_DOCUMENTS_PER_EVENT = 10_000;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    /**
+     * Announce the terms whose postings changed in an indexed batch, split over
+     * as many events as it takes to keep every record small
+     */
+    public void publishIndexedTerms(List<String> terms, List<Integer> documentIds) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        int events = Math.max(chunks(terms.size(), MAX_TERMS_PER_EVENT),
+                chunks(documentIds.size(), MAX_DOCUMENTS_PER_EVENT));
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < events; i++) {
+            publish(IndexingEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .terms(slice(terms, i, MAX_TERMS_PER_EVENT))
+                    .documentIds(slice(documentIds, i, MAX_DOCUMENTS_PER_EVENT))
+                    .timestamp(timestamp)
+                    .build());
+        }
+    }
+
+    private void publish(IndexingEvent event) {
+        List<String> terms = event.getTerms();
+        try {
+            CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(
+                INDEXING_EVENTS_TOPIC,
+                event.getEventId(),
+                event
+            );
+
+            future.whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.debug("Published indexing event with {} terms", terms.size());
+                } else {
+                    log.error("Failed to publish indexing event with {} terms", terms.size(), ex);
+                }
+            });
+
+        } catch (Exception e) {
+            log.error("Error publishing indexing event with {} terms", terms.size(), e);
+        }
+    }
+
+    private static int chunks(int size, int chunkSize) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+
+    private static <T> List<T> slice(List<T> list, int chunk, int chunkSize) {
+        int from = Math.min(chunk * chunkSize, list.size());
+        return new ArrayList<>(list.subList(from, Math.min(from + chunkSize, list.size())));
+    }
+}
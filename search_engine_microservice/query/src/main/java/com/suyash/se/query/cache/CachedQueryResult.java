@@ -0,0 +1,52 @@
+package com.suyash.se.query.cache;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached ranking of a query together with what it took to compute it, used to
+ * decide when the entry should be refreshed ahead of its expiry
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedQueryResult {
+
+    /**
+     * Query as first typed, for suggestions; the cache key is its normalized form.
+     * Null when the entry was computed by warm-up, which only knows the key.
+     */
+    private String query;
+
+    private List<Integer> docIds;
+
+    /**
+     * Final ranking scores aligned with {@code docIds}; null if not kept
+     */
+    private float[] scores;
+
+    /**
+     * Number of results the ranking was computed for; requests up to it are served by slicing
+     */
+    private int depth;
+
+    private long computeMillis;
+
+    /**
+     * Epoch millis at which the Redis copy expires
+     */
+    private long expiresAt;
+
+    /**
+     * Whether the first {@code topK} results are all here: either the ranking was
+     * computed at least that deep or it ran out of matching documents
+     */
+    public boolean covers(int topK) {
+        return docIds != null && (depth >= topK || docIds.size() < depth);
+    }
+}
@@ -1,137 +1,421 @@
 package com.suyash.se.query.cache;
 
-import java.util.*;
-import java.util.concurrent.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
-import org.springframework.stereotype.Component;
-
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 
-
+/**
+ * Bounded cache split into independently locked segments. Reads go to a
+ * concurrent map without locking; recency is updated only when the segment
+ * lock is free, so a busy segment never makes readers wait. New entries land
+ * in a small per-segment window and only move into the main region if the
+ * frequency sketch rates them above the entry they would evict (W-TinyLFU).
+ * Expired entries are dropped when they are read, a few at a time on every
+ * write, and periodically by a sweeper thread shared by all caches.
+ */
 public class LRUCache<K, V> {
-    
 
-    
+    private static final int MAX_SEGMENTS = 16;
+    private static final int ENTRIES_PER_SEGMENT = 64;
+    private static final int CLEANUP_BATCH = 8;
+    private static final Duration MAX_SWEEP_INTERVAL = Duration.ofMinutes(5);
+
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lru-cache-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final int capacity;
     private final Map<K, Node<K, V>> map;
-    private final DoublyLinkedList<K, V> list;
-    private final long ttl; // Time to live in minutes
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final FrequencySketch sketch;
+    private final long ttl; // Time to live in milliseconds
     private final ExpirationPolicy expirationPolicy;
-    private final ScheduledExecutorService scheduler;
-    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledFuture<?> sweep;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
 
     public LRUCache(int capacity, long ttlInMinutes, ExpirationPolicy policy) {
+        this(capacity, Duration.ofMinutes(ttlInMinutes), policy, null, null);
+    }
+
+    /**
+     * @param registry registry for hit, miss and eviction counters tagged with
+     *                 {@code name}; may be null
+     */
+    @SuppressWarnings("unchecked")
+    public LRUCache(int capacity, Duration ttl, ExpirationPolicy policy, MeterRegistry registry, String name) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
         this.capacity = capacity;
-        this.map = new ConcurrentHashMap<>();
-        this.list = new DoublyLinkedList<>();
-        this.ttl = ttlInMinutes * 60 * 1000; // Convert minutes to milliseconds
+        this.map = new ConcurrentHashMap<>(capacity);
+        this.ttl = ttl.toMillis();
         this.expirationPolicy = policy;
+        this.sketch = new FrequencySketch(capacity);
+
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, capacity / ENTRIES_PER_SEGMENT)));
+        int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+        this.segmentMask = segmentCount - 1;
+
+        long interval = Math.max(1000L, Math.min(this.ttl, MAX_SWEEP_INTERVAL.toMillis()));
+        this.sweep = SWEEPER.scheduleAtFixedRate(this::cleanupExpiredEntries, interval, interval,
+                TimeUnit.MILLISECONDS);
 
-        // Schedule a background cleanup task to run every 5 minutes
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        this.scheduler.scheduleAtFixedRate(this::cleanupExpiredEntries, 5, 5, TimeUnit.MINUTES);
+        if (registry != null) {
+            registerMetrics(registry, name);
+        }
     }
 
     public V get(K key) {
-        lock.lock();
-        try {
-            if (!map.containsKey(key)) {
-                return null;
-            }
-            Node<K, V> node = map.get(key);
+        sketch.increment(key);
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
 
-            // Update timestamp for AFTER_ACCESS policy
-            if (expirationPolicy == ExpirationPolicy.AFTER_ACCESS) {
-                node.timestamp = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        Segment<K, V> segment = segmentFor(key);
+        if (isExpired(node, now)) {
+            segment.lock.lock();
+            try {
+                // A concurrent put may have refreshed or replaced the entry since it was read
+                node = map.get(key);
+                if (node == null || isExpired(node, now)) {
+                    if (node != null) {
+                        removeNode(segment, node);
+                    }
+                    misses.increment();
+                    return null;
+                }
+            } finally {
+                segment.lock.unlock();
             }
+        }
 
-            // Check if the entry has expired
-            if (isExpired(node)) {
-                remove(key);
-                return null;
-            }
+        // Update timestamp for AFTER_ACCESS policy
+        if (expirationPolicy == ExpirationPolicy.AFTER_ACCESS) {
+            node.timestamp = now;
+        }
 
-            list.moveToFront(node);
-            return node.value;
-        } finally {
-            lock.unlock();
+        // Recency is best effort: skip the reorder rather than wait for a busy segment
+        if (segment.lock.tryLock()) {
+            try {
+                if (node.linked) {
+                    segment.moveToFront(node);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
         }
+        hits.increment();
+        return node.value;
     }
 
     public void put(K key, V value) {
-        lock.lock();
+        sketch.increment(key);
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
         try {
-            if (map.containsKey(key)) {
-                Node<K, V> node = map.get(key);
+            Node<K, V> node = map.get(key);
+            if (node != null) {
                 node.value = value;
-                node.timestamp = System.currentTimeMillis(); // Update timestamp
-                list.moveToFront(node);
+                node.timestamp = now; // Update timestamp
+                segment.moveToFront(node);
             } else {
-                if (map.size() == capacity) {
-                    Node<K, V> removedNode = list.removeLast();
-                    map.remove(removedNode.key);
-                }
-                Node<K, V> newNode = new Node<>(key, value, System.currentTimeMillis());
-                map.put(key, newNode);
-                list.addFirst(newNode);
+                node = new Node<>(key, value, now);
+                map.put(key, node);
+                segment.addToWindow(node);
+                evictIfNeeded(segment);
             }
+            expireOldest(segment, now);
         } finally {
-            lock.unlock();
+            segment.lock.unlock();
         }
     }
 
-    private boolean isExpired(Node<K, V> node) {
-        return System.currentTimeMillis() - node.timestamp > ttl;
+    /**
+     * Insert the value unless a live entry exists for the key
+     *
+     * @return the live value already cached, or null if this value was inserted
+     */
+    public V putIfAbsent(K key, V value) {
+        sketch.increment(key);
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        segment.lock.lock();
+        try {
+            Node<K, V> node = map.get(key);
+            if (node != null) {
+                if (!isExpired(node, now)) {
+                    return node.value;
+                }
+                removeNode(segment, node);
+            }
+            node = new Node<>(key, value, now);
+            map.put(key, node);
+            segment.addToWindow(node);
+            evictIfNeeded(segment);
+            expireOldest(segment, now);
+            return null;
+        } finally {
+            segment.lock.unlock();
+        }
     }
 
-    private void remove(K key) {
-        lock.lock();
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
         try {
-            Node<K, V> node = map.remove(key);
+            Node<K, V> node = map.get(key);
             if (node != null) {
-                list.remove(node);
+                removeNode(segment, node);
             }
         } finally {
-            lock.unlock();
+            segment.lock.unlock();
         }
     }
 
-    private void cleanupExpiredEntries() {
-        lock.lock();
-        try {
-            Iterator<Map.Entry<K, Node<K, V>>> iterator = map.entrySet().iterator();
-            while (iterator.hasNext()) {
-                Map.Entry<K, Node<K, V>> entry = iterator.next();
-                if (isExpired(entry.getValue())) {
-                    iterator.remove();
-                    list.remove(entry.getValue());
+    public int size() {
+        return map.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Snapshot of the live entries; does not count as access and leaves recency untouched
+     */
+    public Map<K, V> getAllCache() {
+        long now = System.currentTimeMillis();
+        Map<K, V> cache = new LinkedHashMap<>();
+        for (Node<K, V> node : map.values()) {
+            if (!isExpired(node, now)) {
+                cache.put(node.key, node.value);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Live entries with their timestamps, from least to most recently used within
+     * each segment, so that restoring them in this order recreates the recency order
+     */
+    public List<CacheEntry<K, V>> entriesInRecencyOrder() {
+        long now = System.currentTimeMillis();
+        List<CacheEntry<K, V>> entries = new ArrayList<>(map.size());
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                for (DoublyLinkedList<K, V> list : List.of(segment.main, segment.window)) {
+                    for (Node<K, V> node = list.tail.prev; node != list.head; node = node.prev) {
+                        if (!isExpired(node, now)) {
+                            entries.add(new CacheEntry<>(node.key, node.value, node.timestamp));
+                        }
+                    }
                 }
+            } finally {
+                segment.lock.unlock();
             }
+        }
+        return entries;
+    }
+
+    /**
+     * Insert an entry from a snapshot, keeping its original timestamp. Restored
+     * entries skip admission but never displace live ones.
+     *
+     * @return false if the entry has expired, is already present or there is no room
+     */
+    public boolean restore(K key, V value, long timestamp) {
+        if (isExpired(timestamp, System.currentTimeMillis())) {
+            return false;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            if (map.containsKey(key)) {
+                return false;
+            }
+            DoublyLinkedList<K, V> list;
+            if (segment.main.size < segment.mainCapacity) {
+                list = segment.main;
+            } else if (segment.window.size < segment.windowCapacity) {
+                list = segment.window;
+            } else {
+                return false;
+            }
+            Node<K, V> node = new Node<>(key, value, timestamp);
+            map.put(key, node);
+            list.addFirst(node);
+            sketch.increment(key);
+            return true;
         } finally {
-            lock.unlock();
+            segment.lock.unlock();
         }
     }
 
     @PreDestroy
     public void shutdown() {
-        scheduler.shutdown();
+        sweep.cancel(false);
     }
 
-    public Map<K, V> getAllCache() {
-        lock.lock();
-        try {
-            Map<K, V> cache = new LinkedHashMap<>();
+    /**
+     * Move the oldest window entry into the main region if the main region has
+     * room or the sketch prefers it over the main region's least recent entry
+     */
+    private void evictIfNeeded(Segment<K, V> segment) {
+        if (segment.window.size <= segment.windowCapacity) {
+            return;
+        }
+        Node<K, V> candidate = segment.window.removeLast();
+        if (segment.main.size < segment.mainCapacity) {
+            segment.main.addFirst(candidate);
+            return;
+        }
 
-            for (Map.Entry<K, Node<K, V>> mapEntry : map.entrySet()) {
-                K key = mapEntry.getKey();
-                V value = get(key);
+        Node<K, V> victim = segment.main.last();
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            removeNode(segment, victim);
+            segment.main.addFirst(candidate);
+        } else {
+            map.remove(candidate.key, candidate);
+        }
+        evictions.increment();
+    }
 
-                cache.put(key, value);
+    private void expireOldest(Segment<K, V> segment, long now) {
+        expireOldest(segment, segment.window, now, CLEANUP_BATCH);
+        expireOldest(segment, segment.main, now, CLEANUP_BATCH);
+    }
+
+    private void expireOldest(Segment<K, V> segment, DoublyLinkedList<K, V> list, long now, int limit) {
+        for (int i = 0; i < limit; i++) {
+            Node<K, V> node = list.last();
+            if (node == null || !isExpired(node, now)) {
+                return;
             }
-            return cache;
-        } finally {
-            lock.unlock();
+            removeNode(segment, node);
+        }
+    }
+
+    private void removeNode(Segment<K, V> segment, Node<K, V> node) {
+        if (node.linked) {
+            segment.listOf(node).remove(node);
+        }
+        map.remove(node.key, node);
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return isExpired(node.timestamp, now);
+    }
+
+    boolean isExpired(long timestamp, long now) {
+        return now - timestamp > ttl;
+    }
+
+    private void cleanupExpiredEntries() {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                // Recency order is approximate, so check every entry rather than stopping at the first live one
+                expireOldest(segment, segment.window, now, segment.window.size);
+                for (Node<K, V> node = segment.main.head.next; node != segment.main.tail;) {
+                    Node<K, V> next = node.next;
+                    if (isExpired(node, now)) {
+                        removeNode(segment, node);
+                    }
+                    node = next;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        return segments[FrequencySketch.spread(key.hashCode()) & segmentMask];
+    }
+
+    private void registerMetrics(MeterRegistry registry, String name) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .description("Cache lookups that found a live entry")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .description("Cache lookups that found no entry or an expired one")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name)
+                .description("Entries evicted or rejected for lack of capacity")
+                .register(registry);
+        Gauge.builder("cache.size", map, Map::size)
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    public static final class CacheEntry<K, V> {
+        private final K key;
+        private final V value;
+        private final long timestamp;
+
+        CacheEntry(K key, V value, long timestamp) {
+            this.key = key;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
         }
     }
 
@@ -140,12 +424,42 @@ public class LRUCache<K, V> {
         AFTER_ACCESS
     }
 
+    private static class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final DoublyLinkedList<K, V> window = new DoublyLinkedList<>(true);
+        final DoublyLinkedList<K, V> main = new DoublyLinkedList<>(false);
+        final int windowCapacity;
+        final int mainCapacity;
+
+        Segment(int capacity) {
+            // About 1% of the segment admits new entries unconditionally
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.mainCapacity = capacity - windowCapacity;
+        }
+
+        void addToWindow(Node<K, V> node) {
+            window.addFirst(node);
+        }
+
+        void moveToFront(Node<K, V> node) {
+            DoublyLinkedList<K, V> list = listOf(node);
+            list.remove(node);
+            list.addFirst(node);
+        }
+
+        DoublyLinkedList<K, V> listOf(Node<K, V> node) {
+            return node.inWindow ? window : main;
+        }
+    }
+
     private static class Node<K, V> {
-        K key;
-        V value;
+        final K key;
+        volatile V value;
         Node<K, V> prev;
         Node<K, V> next;
-        long timestamp; // Timestamp when the node was created or updated
+        volatile long timestamp; // Timestamp when the node was created or updated
+        volatile boolean linked;
+        boolean inWindow;
 
         Node(K key, V value, long timestamp) {
             this.key = key;
@@ -155,10 +469,13 @@ public class LRUCache<K, V> {
     }
 
     private static class DoublyLinkedList<K, V> {
-        private Node<K, V> head;
-        private Node<K, V> tail;
+        private final Node<K, V> head;
+        private final Node<K, V> tail;
+        private final boolean window;
+        private int size;
 
-        public DoublyLinkedList() {
+        public DoublyLinkedList(boolean window) {
+            this.window = window;
             head = new Node<>(null, null, 0);
             tail = new Node<>(null, null, 0);
             head.next = tail;
@@ -170,18 +487,18 @@ public class LRUCache<K, V> {
             node.prev = head;
             head.next.prev = node;
             head.next = node;
+            node.inWindow = window;
+            node.linked = true;
+            size++;
         }
 
-        public void moveToFront(Node<K, V> node) {
-            remove(node);
-            addFirst(node);
+        public Node<K, V> last() {
+            return tail.prev == head ? null : tail.prev;
         }
 
         public Node<K, V> removeLast() {
-            if (tail.prev == head) {
-                return null;
-            }
-            return remove(tail.prev);
+            Node<K, V> last = last();
+            return last == null ? null : remove(last);
         }
 
         public Node<K, V> remove(Node<K, V> node) {
@@ -189,6 +506,8 @@ public class LRUCache<K, V> {
             node.next.prev = node.prev;
             node.prev = null;
             node.next = null;
+            node.linked = false;
+            size--;
             return node;
         }
     }
@@ -1,15 +1,38 @@
 package com.suyash.se.query.cache;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
 @Service
+@Slf4j
 public class LRUCacheService<K, V> {
 
-    final int CAPACITY = 1000;
-    private final LRUCache<K, V> cache = new LRUCache<>(CAPACITY, 10,
-            LRUCache.ExpirationPolicy.AFTER_ACCESS);
+    private final LRUCache<K, V> cache;
+    private final RedisSerializer<Object> snapshotSerializer = new QueryResultRedisSerializer();
+
+    @Value("${search.cache.l1.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${search.cache.l1.snapshot.path:data/query-l1-cache.snapshot}")
+    private Path snapshotPath;
+
+    public LRUCacheService(MeterRegistry meterRegistry,
+            @Value("${search.cache.l1.capacity:1000}") int capacity,
+            @Value("${search.cache.l1.ttl:5m}") Duration ttl) {
+        this.cache = new LRUCache<>(capacity, ttl, LRUCache.ExpirationPolicy.AFTER_WRITE, meterRegistry,
+                "query-l1");
+    }
 
     public V getIfPresent(K key) {
         return cache.get(key);
@@ -19,8 +42,50 @@ public class LRUCacheService<K, V> {
         cache.put(key, value);
     }
 
+    public void remove(K key) {
+        cache.remove(key);
+    }
+
     public Map<K, V> asMap() {
         return cache.getAllCache();
     }
 
+    /**
+     * Reload the entries saved by the previous run so a restarted node starts warm
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int restored = LRUCacheSnapshot.read(cache, snapshotPath, snapshotSerializer);
+            log.info("Restored {} cache entries from {} in {} ms", restored, snapshotPath,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Error loading cache snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.cache.l1.snapshot.interval-ms:300000}",
+            initialDelayString = "${search.cache.l1.snapshot.interval-ms:300000}")
+    public void saveSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        try {
+            int written = LRUCacheSnapshot.write(cache, snapshotPath, snapshotSerializer);
+            log.debug("Saved {} cache entries to {}", written, snapshotPath);
+        } catch (Exception e) {
+            log.warn("Error saving cache snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+        cache.shutdown();
+    }
+
 }
@@ -0,0 +1,109 @@
+package com.suyash.se.query.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Binary snapshot of an {@link LRUCache}. Entries are written least recently
+ * used first, so replaying the file rebuilds the recency order. Layout: magic,
+ * version byte, entry count, then per entry the timestamp and the length
+ * prefixed key and value bytes.
+ */
+public final class LRUCacheSnapshot {
+
+    private static final int MAGIC = 0x51434c31; // "QCL1"
+    private static final byte VERSION = 1;
+
+    private LRUCacheSnapshot() {
+    }
+
+    /**
+     * Write the snapshot to a temporary file next to {@code path} and move it
+     * into place, so a crash mid-write never leaves a truncated snapshot behind
+     */
+    public static <K, V> int write(LRUCache<K, V> cache, Path path, RedisSerializer<Object> serializer)
+            throws IOException {
+        List<LRUCache.CacheEntry<K, V>> entries = cache.entriesInRecencyOrder();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            int written = 0;
+            try (OutputStream file = Files.newOutputStream(temporary, StandardOpenOption.TRUNCATE_EXISTING);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeInt(entries.size());
+                for (LRUCache.CacheEntry<K, V> entry : entries) {
+                    byte[] key = serializer.serialize(entry.getKey());
+                    byte[] value = serializer.serialize(entry.getValue());
+                    out.writeLong(entry.getTimestamp());
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeInt(value.length);
+                    out.write(value);
+                    written++;
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Load a snapshot through a memory-mapped read; expired entries are skipped
+     *
+     * @return number of entries restored, or 0 if there is no usable snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> int read(LRUCache<K, V> cache, Path path, RedisSerializer<Object> serializer)
+            throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 9 || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return 0;
+            }
+            int count = buffer.getInt();
+            int restored = 0;
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                long timestamp = buffer.getLong();
+                int keyLength = buffer.getInt();
+                if (cache.isExpired(timestamp, now)) {
+                    // Skip over the entry without copying it out of the mapping
+                    buffer.position(buffer.position() + keyLength);
+                    int valueLength = buffer.getInt();
+                    buffer.position(buffer.position() + valueLength);
+                    continue;
+                }
+                byte[] key = new byte[keyLength];
+                buffer.get(key);
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                if (cache.restore((K) serializer.deserialize(key), (V) serializer.deserialize(value), timestamp)) {
+                    restored++;
+                }
+            }
+            return restored;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt cache snapshot " + path, e);
+        }
+    }
+}
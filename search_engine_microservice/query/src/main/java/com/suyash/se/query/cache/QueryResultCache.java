@@ -0,0 +1,190 @@
+package com.suyash.se.query.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Query result cache on top of the tiered cache. Empty results are cached
+ * with a short TTL so repeated junk queries do not reach the indexer, and hot
+ * entries are recomputed in the background shortly before they expire
+ * (XFetch), so a popular key does not expire everywhere at once.
+ */
+@Service
+@Slf4j
+public class QueryResultCache {
+
+    private final TieredCacheService<String, CachedQueryResult> cache;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final double beta;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refreshExecutor;
+    private final Counter earlyRefreshes;
+    private final Counter invalidations;
+
+    public QueryResultCache(TieredCacheService<String, CachedQueryResult> cache, MeterRegistry meterRegistry,
+            @Value("${search.cache.l2.ttl:10m}") Duration ttl,
+            @Value("${search.cache.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${search.cache.refresh-beta:1.0}") double beta) {
+        this.cache = cache;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.beta = beta;
+        // Refreshes are best effort, so excess ones are dropped rather than queued without bound
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "query-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.earlyRefreshes = Counter.builder("query.cache.early.refreshes")
+                .description("Cache entries recomputed in the background before expiring")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("query.cache.invalidations")
+                .description("Cache entries evicted because the postings of one of their terms changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached result for the key, or null if absent or past its expiry
+     */
+    public CachedQueryResult get(String key) {
+        CachedQueryResult result;
+        try {
+            result = cache.getIfPresent(key);
+        } catch (ClassCastException e) {
+            return null; // Entry written in an older format; it is overwritten on recomputation
+        }
+        if (result == null || result.getDocIds() == null) {
+            return null;
+        }
+        // L1 keeps its own TTL, so short-lived negative entries are expired here
+        return result.getExpiresAt() < System.currentTimeMillis() ? null : result;
+    }
+
+    /**
+     * @param scores scores aligned with {@code docIds}, or null when the ranking has none worth keeping
+     */
+    public CachedQueryResult put(String key, String query, List<Integer> docIds, double[] scores, int depth,
+            long computeMillis) {
+        Duration entryTtl = docIds.isEmpty() ? negativeTtl : ttl;
+        float[] storedScores = null;
+        if (scores != null) {
+            storedScores = new float[scores.length];
+            for (int i = 0; i < scores.length; i++) {
+                storedScores[i] = (float) scores[i];
+            }
+        }
+        CachedQueryResult result = CachedQueryResult.builder()
+                .query(query)
+                .docIds(docIds)
+                .scores(storedScores)
+                .depth(depth)
+                .computeMillis(computeMillis)
+                .expiresAt(System.currentTimeMillis() + entryTtl.toMillis())
+                .build();
+        cache.put(key, result, entryTtl, termsOf(key));
+        return result;
+    }
+
+    /**
+     * Evict every cached result whose query contains one of the terms
+     */
+    public void invalidateTerms(Collection<String> terms) {
+        if (terms == null || terms.isEmpty()) {
+            return;
+        }
+        Set<String> changed = new HashSet<>(terms);
+        int evicted = cache.evictByTerms(changed, key -> termsOf(key).stream().anyMatch(changed::contains));
+        invalidations.increment(evicted);
+        log.debug("Evicted {} cached results for {} changed terms", evicted, changed.size());
+    }
+
+    /**
+     * Terms of a cache key: a normalized query, optionally behind a namespace ending in '|'
+     */
+    static List<String> termsOf(String key) {
+        String query = key.substring(key.lastIndexOf('|') + 1);
+        return query.isEmpty() ? List.of() : List.of(query.split(" "));
+    }
+
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    /**
+     * XFetch: refresh with a probability that rises as expiry approaches, earlier
+     * for results that were expensive to compute
+     */
+    public boolean shouldRefreshEarly(CachedQueryResult result) {
+        if (result.getDocIds().isEmpty()) {
+            return false; // Negative entries are cheap to recompute once they expire
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double gap = -result.getComputeMillis() * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= result.getExpiresAt();
+    }
+
+    /**
+     * Run the recomputation in the background unless one is already running for the key
+     */
+    public void refreshInBackground(String key, Runnable recompute) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    earlyRefreshes.increment();
+                    recompute.run();
+                } catch (Exception e) {
+                    log.warn("Early refresh failed for query {}: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Cached queries that have results, as typed, for training suggestions and corrections
+     */
+    public Set<String> cachedQueries() {
+        Set<String> queries = new HashSet<>();
+        for (Map.Entry<String, CachedQueryResult> entry : cache.asMap().entrySet()) {
+            Object value = entry.getValue();
+            if (!(value instanceof CachedQueryResult result)) {
+                queries.add(entry.getKey()); // Entries in the older format held results
+            } else if (result.getQuery() != null && result.getDocIds() != null && !result.getDocIds().isEmpty()) {
+                queries.add(result.getQuery());
+            }
+        }
+        return queries;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,172 @@
+package com.suyash.se.query.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer that writes {@link CachedQueryResult} in a compact
+ * binary form and everything else as JSON. Binary values start with a magic
+ * byte that JSON never starts with, followed by a format version, so both
+ * encodings can be read side by side during a rollout.
+ *
+ * <p>Version 1 layout: magic, version, flags (bit 0: scores present), varint
+ * depth, varlong computeMillis, varlong expiresAt, varint query length and
+ * UTF-8 bytes (length 0 means no query), varint count, zigzag varint deltas
+ * between consecutive doc ids, and with bit 0 set one float32 per doc id.
+ */
+public class QueryResultRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 1;
+    private static final int FLAG_SCORES = 1;
+
+    private final RedisSerializer<Object> json;
+
+    public QueryResultRedisSerializer() {
+        this(new GenericJackson2JsonRedisSerializer());
+    }
+
+    public QueryResultRedisSerializer(RedisSerializer<Object> json) {
+        this.json = json;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof CachedQueryResult result && result.getDocIds() != null) {
+            return encode(result);
+        }
+        return json.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < 2 || bytes[1] != VERSION) {
+            // Written by a newer release; treat as a cache miss rather than fail the request
+            return null;
+        }
+        return decode(bytes);
+    }
+
+    private static byte[] encode(CachedQueryResult result) {
+        List<Integer> docIds = result.getDocIds();
+        float[] scores = result.getScores();
+        boolean withScores = scores != null && scores.length == docIds.size();
+        byte[] query = result.getQuery() != null ? result.getQuery().getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + query.length + docIds.size() * (withScores ? 7 : 3));
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(withScores ? FLAG_SCORES : 0);
+        writeVarLong(out, result.getDepth());
+        writeVarLong(out, result.getComputeMillis());
+        writeVarLong(out, result.getExpiresAt());
+        writeVarLong(out, query.length);
+        out.write(query, 0, query.length);
+
+        writeVarLong(out, docIds.size());
+        long previous = 0;
+        for (Integer docId : docIds) {
+            // Results are in rank order, not id order, so deltas can be negative
+            long delta = docId - previous;
+            writeVarLong(out, (delta << 1) ^ (delta >> 63));
+            previous = docId;
+        }
+        if (withScores) {
+            for (float score : scores) {
+                int bits = Float.floatToIntBits(score);
+                out.write(bits >>> 24);
+                out.write(bits >>> 16);
+                out.write(bits >>> 8);
+                out.write(bits);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static CachedQueryResult decode(byte[] bytes) {
+        try {
+            int[] position = { 2 };
+            int flags = bytes[position[0]++];
+            int depth = (int) readVarLong(bytes, position);
+            long computeMillis = readVarLong(bytes, position);
+            long expiresAt = readVarLong(bytes, position);
+            int queryLength = checkedLength(readVarLong(bytes, position), bytes.length - position[0]);
+            String query = queryLength > 0
+                    ? new String(bytes, position[0], queryLength, StandardCharsets.UTF_8)
+                    : null;
+            position[0] += queryLength;
+
+            // Every doc id takes at least one byte, which bounds the list allocated below
+            int count = checkedLength(readVarLong(bytes, position), bytes.length - position[0]);
+            List<Integer> docIds = new ArrayList<>(count);
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long zigzag = readVarLong(bytes, position);
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                docIds.add((int) previous);
+            }
+
+            float[] scores = null;
+            if ((flags & FLAG_SCORES) != 0) {
+                scores = new float[count];
+                int p = position[0];
+                for (int i = 0; i < count; i++, p += 4) {
+                    int bits = (bytes[p] & 0xff) << 24 | (bytes[p + 1] & 0xff) << 16
+                            | (bytes[p + 2] & 0xff) << 8 | (bytes[p + 3] & 0xff);
+                    scores[i] = Float.intBitsToFloat(bits);
+                }
+            }
+
+            return CachedQueryResult.builder()
+                    .query(query)
+                    .docIds(docIds)
+                    .scores(scores)
+                    .depth(depth)
+                    .computeMillis(computeMillis)
+                    .expiresAt(expiresAt)
+                    .build();
+        } catch (IndexOutOfBoundsException e) {
+            // Arrays throw the array variant, the String constructor the string variant
+            throw new SerializationException("Truncated cached query result", e);
+        }
+    }
+
+    private static int checkedLength(long length, int remaining) {
+        if (length < 0 || length > remaining) {
+            throw new SerializationException("Corrupt length " + length + " in cached query result");
+        }
+        return (int) length;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint in cached query result");
+    }
+}
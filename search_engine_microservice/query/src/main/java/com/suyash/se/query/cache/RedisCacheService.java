@@ -1,38 +1,74 @@
 package com.suyash.se.query.cache;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Query result cache in Redis. Every cached key is also recorded in a sorted
+ * set scored by its last write, so entries can be enumerated and counted
+ * without walking the keyspace. Hits do not extend an entry's TTL and so do
+ * not touch the index; members older than the longest TTL are pruned by puts,
+ * at most once per {@link #PRUNE_INTERVAL_MILLIS}.
+ */
 @Service
 public class RedisCacheService<K, V> {
 
+    private static final String KEY_PREFIX = "query_cache:";
+    private static final String INDEX_KEY = "query_cache_index";
+    private static final String TERM_INDEX_PREFIX = "query_cache_terms:";
+    private static final int BATCH_SIZE = 500;
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Duration defaultTtl = Duration.ofMinutes(10); // Default TTL of 10 minutes
+    // Longest TTL any instance writes with; index members older than this have expired
+    private volatile long maxTtlMillis = defaultTtl.toMillis();
+    private final AtomicLong nextPruneAt = new AtomicLong();
+
+    /**
+     * Start the prune horizon at the configured TTL, not at what this instance
+     * has written so far, so a fresh node does not drop index members that
+     * other instances wrote with that TTL
+     */
+    @Value("${search.cache.l2.ttl:10m}")
+    void setConfiguredTtl(Duration ttl) {
+        maxTtlMillis = Math.max(maxTtlMillis, ttl.toMillis());
+    }
 
     /**
      * Get value from cache if present
      */
+    @SuppressWarnings("unchecked")
     public V getIfPresent(K key) {
         try {
             String redisKey = generateKey(key);
             Object value = redisTemplate.opsForValue().get(redisKey);
-            if (value != null) {
-                return (V) value;
-            }
-            return null;
+            return (V) value;
         } catch (Exception e) {
             System.err.println("Error getting value from Redis cache: " + e.getMessage());
             return null;
@@ -46,13 +82,42 @@ public class RedisCacheService<K, V> {
         put(key, value, defaultTtl);
     }
 
-/**
+    /**
      * Put value in cache with custom TTL
      */
     public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl, Collections.emptyList());
+    }
+
+    /**
+     * Put value in cache with custom TTL and record it under each of the given
+     * terms, so that it can be evicted when the postings of a term change
+     */
+    public void put(K key, V value, Duration ttl, Collection<String> terms) {
         try {
             String redisKey = generateKey(key);
-         redisTemplate.opsForValue().set(redisKey, value, ttl);
+            maxTtlMillis = Math.max(maxTtlMillis, ttl.toMillis());
+            long now = System.currentTimeMillis();
+            long pruneAt = nextPruneAt.get();
+            boolean prune = now >= pruneAt && nextPruneAt.compareAndSet(pruneAt, now + PRUNE_INTERVAL_MILLIS);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForValue().set(redisKey, value, ttl);
+                    ops.opsForZSet().add(INDEX_KEY, redisKey, now);
+                    if (prune) {
+                        ops.opsForZSet().removeRangeByScore(INDEX_KEY, 0, now - maxTtlMillis);
+                    }
+                    for (String term : terms) {
+                        // The term set outlives every key it lists; stale members are harmless
+                        ops.opsForSet().add(TERM_INDEX_PREFIX + term, redisKey);
+                        ops.expire(TERM_INDEX_PREFIX + term, Duration.ofMillis(maxTtlMillis));
+                    }
+                    return null;
+                }
+            });
         } catch (Exception e) {
             System.err.println("Error putting value in Redis cache: " + e.getMessage());
         }
@@ -65,11 +130,56 @@ public class RedisCacheService<K, V> {
         try {
             String redisKey = generateKey(key);
             redisTemplate.delete(redisKey);
+            redisTemplate.opsForZSet().remove(INDEX_KEY, redisKey);
         } catch (Exception e) {
             System.err.println("Error removing value from Redis cache: " + e.getMessage());
         }
     }
 
+    /**
+     * Remove every entry recorded under any of the given terms
+     *
+     * @return keys of the removed entries
+     */
+    @SuppressWarnings("unchecked")
+    public Set<K> evictByTerms(Collection<String> terms) {
+        Set<K> evicted = new HashSet<>();
+        List<String> termList = new ArrayList<>(terms);
+        for (int from = 0; from < termList.size(); from += BATCH_SIZE) {
+            List<String> termKeys = termList.subList(from, Math.min(from + BATCH_SIZE, termList.size())).stream()
+                    .map(term -> TERM_INDEX_PREFIX + term)
+                    .toList();
+            try {
+                List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                        RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                        termKeys.forEach(termKey -> ops.opsForSet().members(termKey));
+                        return null;
+                    }
+                });
+
+                Set<String> redisKeys = new HashSet<>();
+                for (Object reply : replies) {
+                    if (reply != null) {
+                        ((Set<Object>) reply).forEach(member -> redisKeys.add(member.toString()));
+                    }
+                }
+                List<String> toDelete = new ArrayList<>(redisKeys);
+                toDelete.addAll(termKeys);
+                redisTemplate.delete(toDelete);
+                if (!redisKeys.isEmpty()) {
+                    redisTemplate.opsForZSet().remove(INDEX_KEY, redisKeys.toArray());
+                }
+                redisKeys.forEach(redisKey -> evicted.add(extractOriginalKey(redisKey)));
+            } catch (Exception e) {
+                System.err.println("Error evicting cache entries by term: " + e.getMessage());
+            }
+        }
+        return evicted;
+    }
+
     /**
      * Check if key exists in cache
      */
@@ -85,25 +195,29 @@ public class RedisCacheService<K, V> {
 
     /**
      * Get all cache entries as a map (for compatibility with LRU cache)
-     * Note: This is expensive for large caches, use sparingly
      */
     public Map<K, V> asMap() {
+        return asMap(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get up to {@code limit} cache entries, most recently written first. Keys come
+     * from the index and values are read with pipelined MGETs; index members whose
+     * entry has expired are removed along the way.
+     */
+    public Map<K, V> asMap(int limit) {
         try {
+            pruneIndex();
             Map<K, V> result = new HashMap<>();
-            String pattern = "query_cache:*";
-            Set<String> keys = redisTemplate.keys(pattern);
-            
-            if (keys != null) {
-                for (String redisKey : keys) {
-                    try {
-                        K originalKey = extractOriginalKey(redisKey);
-                        V value = (V) redisTemplate.opsForValue().get(redisKey);
-                        if (value != null) {
-                            result.put(originalKey, value);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error processing key " + redisKey + ": " + e.getMessage());
-                    }
+            for (long start = 0; start < limit; start += BATCH_SIZE) {
+                long end = Math.min(start + BATCH_SIZE, (long) limit) - 1;
+                Set<Object> members = redisTemplate.opsForZSet().reverseRange(INDEX_KEY, start, end);
+                if (members == null || members.isEmpty()) {
+                    break;
+                }
+                readBatch(new ArrayList<>(members), result);
+                if (members.size() < end - start + 1) {
+                    break;
                 }
             }
             return result;
@@ -118,24 +232,34 @@ public class RedisCacheService<K, V> {
      */
     public void clear() {
         try {
-            String pattern = "query_cache:*";
-            Set<String> keys = redisTemplate.keys(pattern);
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
+            // Walk the keyspace incrementally so Redis keeps serving other clients
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(BATCH_SIZE).build();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == BATCH_SIZE) {
+                        redisTemplate.delete(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                redisTemplate.delete(batch);
             }
+            redisTemplate.delete(INDEX_KEY);
         } catch (Exception e) {
             System.err.println("Error clearing Redis cache: " + e.getMessage());
         }
     }
 
     /**
-     * Get cache size (approximate)
+     * Get cache size (approximate: may count entries that expired since the last prune)
      */
     public long size() {
         try {
-            String pattern = "query_cache:*";
-            Set<String> keys = redisTemplate.keys(pattern);
-            return keys != null ? keys.size() : 0;
+            Long size = redisTemplate.opsForZSet().zCard(INDEX_KEY);
+            return size != null ? size : 0;
         } catch (Exception e) {
             System.err.println("Error getting cache size: " + e.getMessage());
             return 0;
@@ -167,11 +291,53 @@ public class RedisCacheService<K, V> {
         }
     }
 
+    /**
+     * Read the values of one batch of index members with pipelined MGETs
+     */
+    @SuppressWarnings("unchecked")
+    private void readBatch(List<Object> members, Map<K, V> result) {
+        List<String> redisKeys = members.stream().map(Object::toString).toList();
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (int from = 0; from < redisKeys.size(); from += 100) {
+                    ops.opsForValue().multiGet(redisKeys.subList(from, Math.min(from + 100, redisKeys.size())));
+                }
+                return null;
+            }
+        });
+
+        List<Object> expired = new ArrayList<>();
+        int i = 0;
+        for (Object reply : replies) {
+            for (Object value : (List<Object>) reply) {
+                String redisKey = redisKeys.get(i++);
+                if (value != null) {
+                    result.put(extractOriginalKey(redisKey), (V) value);
+                } else {
+                    expired.add(redisKey);
+                }
+            }
+        }
+        if (!expired.isEmpty()) {
+            redisTemplate.opsForZSet().remove(INDEX_KEY, expired.toArray());
+        }
+    }
+
+    /**
+     * Drop index members that have not been written for longer than any TTL
+     */
+    private void pruneIndex() {
+        redisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, 0, System.currentTimeMillis() - maxTtlMillis);
+    }
+
     /**
      * Generate Redis key with namespace
      */
     private String generateKey(K key) {
-        return "query_cache:" + key.toString();
+        return KEY_PREFIX + key.toString();
     }
 
     /**
@@ -179,7 +345,7 @@ public class RedisCacheService<K, V> {
      */
     @SuppressWarnings("unchecked")
     private K extractOriginalKey(String redisKey) {
-        String keyStr = redisKey.replace("query_cache:", "");
+        String keyStr = redisKey.substring(KEY_PREFIX.length());
         return (K) keyStr;
     }
 }
\ No newline at end of file
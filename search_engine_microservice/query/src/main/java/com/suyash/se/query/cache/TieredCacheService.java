@@ -0,0 +1,120 @@
+package com.suyash.se.query.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Query result cache with an in-process LRU tier (L1) in front of Redis (L2).
+ * Lookups try L1 first and only go to Redis on an L1 miss; entries found in
+ * Redis are promoted into L1 so repeated queries are served without I/O.
+ */
+@Service
+public class TieredCacheService<K, V> {
+
+    private final LRUCacheService<K, V> localCache;
+    private final RedisCacheService<K, V> redisCache;
+    private final Duration redisTtl;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    public TieredCacheService(LRUCacheService<K, V> localCache, RedisCacheService<K, V> redisCache,
+            MeterRegistry meterRegistry,
+            @Value("${search.cache.l2.ttl:10m}") Duration redisTtl) {
+        this.localCache = localCache;
+        this.redisCache = redisCache;
+        this.redisTtl = redisTtl;
+
+        // L1 counters are registered by the LRU cache itself under cache=query-l1
+        this.redisHits = Counter.builder("cache.gets")
+                .tag("cache", "query-l2")
+                .tag("result", "hit")
+                .description("Redis lookups after an L1 miss that found an entry")
+                .register(meterRegistry);
+        this.redisMisses = Counter.builder("cache.gets")
+                .tag("cache", "query-l2")
+                .tag("result", "miss")
+                .description("Redis lookups after an L1 miss that found nothing")
+                .register(meterRegistry);
+    }
+
+    public V getIfPresent(K key) {
+        V value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = redisCache.getIfPresent(key);
+        if (value == null) {
+            redisMisses.increment();
+            return null;
+        }
+        redisHits.increment();
+        localCache.put(key, value);
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, redisTtl);
+    }
+
+    /**
+     * Put with a custom Redis TTL; the L1 copy keeps the L1 TTL
+     */
+    public void put(K key, V value, Duration ttl) {
+        localCache.put(key, value);
+        redisCache.put(key, value, ttl);
+    }
+
+    /**
+     * Put with a custom Redis TTL, indexing the Redis copy under the given terms
+     */
+    public void put(K key, V value, Duration ttl, Collection<String> terms) {
+        localCache.put(key, value);
+        redisCache.put(key, value, ttl, terms);
+    }
+
+    /**
+     * Evict entries that depend on any of the given terms from both tiers. Redis
+     * finds its entries through its term index; L1 entries are matched with
+     * {@code dependsOnTerms}, since other instances may already have consumed
+     * the Redis index by the time this instance sees the change.
+     *
+     * @return number of entries evicted
+     */
+    public int evictByTerms(Collection<String> terms, Predicate<K> dependsOnTerms) {
+        Set<K> evicted = new HashSet<>(redisCache.evictByTerms(terms));
+        for (K key : localCache.asMap().keySet()) {
+            if (dependsOnTerms.test(key)) {
+                evicted.add(key);
+            }
+        }
+        evicted.forEach(localCache::remove);
+        return evicted.size();
+    }
+
+    public void remove(K key) {
+        localCache.remove(key);
+        redisCache.remove(key);
+    }
+
+    /**
+     * Entries of both tiers; L1 wins where both hold a key
+     */
+    public Map<K, V> asMap() {
+        Map<K, V> entries = new HashMap<>(redisCache.asMap());
+        entries.putAll(localCache.asMap());
+        return entries;
+    }
+}
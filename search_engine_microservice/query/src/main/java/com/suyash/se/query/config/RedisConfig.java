@@ -10,6 +10,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.suyash.se.query.cache.QueryResultRedisSerializer;
+
 import redis.clients.jedis.JedisPoolConfig;
 
 @Configuration
@@ -62,8 +64,8 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         
-        // Use JSON serializer for values
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        // Use JSON serializer for values, with a compact binary form for cached query results
+        template.setValueSerializer(new QueryResultRedisSerializer());
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         
         template.setEnableTransactionSupport(true);
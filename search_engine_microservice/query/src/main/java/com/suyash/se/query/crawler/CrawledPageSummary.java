@@ -0,0 +1,32 @@
+package com.suyash.se.query.crawler;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Result summary returned by the crawler's bulk lookup, without the page content
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CrawledPageSummary {
+
+    private Long id;
+
+    private String url;
+
+    private String title;
+
+    private String shortContent;
+
+    private double pageRankScore;
+
+    private List<String> tags;
+}
@@ -1,11 +1,14 @@
 package com.suyash.se.query.crawler;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.suyash.se.query.config.FeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 @FeignClient(name = "crawler", configuration = FeignConfig.class)
 public interface CrawlerClient {
@@ -13,4 +16,7 @@ public interface CrawlerClient {
     @GetMapping("/crawler/findById/{id}")
     Optional<CrawledPage> findById(@PathVariable("id") long id);
 
+    @PostMapping("/crawler/findByIds")
+    List<CrawledPageSummary> findByIds(@RequestBody List<Long> ids);
+
 }
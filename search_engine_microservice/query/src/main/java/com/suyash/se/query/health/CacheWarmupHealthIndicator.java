@@ -0,0 +1,34 @@
+package com.suyash.se.query.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.warmup.CacheWarmupService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reports the node out of service until the result cache has been warmed up
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmupService warmupService;
+
+    @Override
+    public Health health() {
+        CacheWarmupService.WarmupState state = warmupService.getState();
+        Health.Builder healthBuilder = switch (state) {
+            case COMPLETED, DISABLED -> Health.up();
+            case PENDING, RUNNING -> Health.outOfService();
+        };
+        return healthBuilder
+                .withDetail("state", state)
+                .withDetail("plannedQueries", warmupService.getPlannedQueries())
+                .withDetail("warmedQueries", warmupService.getWarmedQueries())
+                .withDetail("durationMillis", warmupService.getDurationMillis())
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.suyash.se.query.indexer;
 
+import java.util.List;
+
 import com.suyash.se.query.config.FeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -11,4 +13,7 @@ public interface IndexerClient {
     @PostMapping("/indexer/find")
     InvertedIndex findByWord(@RequestBody String term);
 
+    @PostMapping("/indexer/findByWords")
+    PostingsResponse findByWords(@RequestBody List<String> terms);
+
 }
@@ -1,6 +1,5 @@
 package com.suyash.se.query.indexer;
 
-import java.util.List;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
@@ -19,7 +18,15 @@ public class InvertedIndex {
 
     private String word;
 
-    private List<Integer> documentIds;
+    private int[] documentIds;
 
     private Map<Integer, Double> tfidfScores;
+
+    private Map<Integer, Integer> firstPositions;
+
+    private Map<Integer, Integer> termFrequencies;
+
+    private Double maxScore;
+
+    private Integer maxTermFrequency;
 }
\ No newline at end of file
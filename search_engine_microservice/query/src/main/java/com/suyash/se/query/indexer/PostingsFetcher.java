@@ -0,0 +1,156 @@
+package com.suyash.se.query.indexer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches the postings of a query from the indexer under a single per-query
+ * deadline. The bulk endpoint is tried first; if it fails, the terms are fetched
+ * concurrently one call per term. Whatever has not arrived by the deadline is
+ * left out and the response is marked partial. Calls still queued are
+ * cancelled and running ones interrupted, but a blocked HTTP read ignores
+ * interrupts: the indexer client's Feign timeouts, configured from the same
+ * deadline, are what bound how long an abandoned call holds a pool thread.
+ * The per-term endpoint carries no collection or document statistics, so
+ * fallback responses are always partial: they can be ranked but must not be
+ * cached.
+ */
+@Component
+@Slf4j
+public class PostingsFetcher {
+
+    private final IndexerClient indexerClient;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public PostingsFetcher(IndexerClient indexerClient,
+            @Value("${search.postings.timeout:2s}") Duration timeout,
+            @Value("${search.postings.fan-out-threads:16}") int threads,
+            @Value("${search.postings.queue-capacity:256}") int queueCapacity) {
+        this.indexerClient = indexerClient;
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "postings-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Never returns null; postings of terms that missed the deadline are left out
+     */
+    public PostingsResponse fetch(List<String> terms) {
+        if (terms.isEmpty()) {
+            return emptyResponse(false);
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        Future<PostingsResponse> bulk;
+        try {
+            bulk = executor.submit(() -> indexerClient.findByWords(terms));
+        } catch (RejectedExecutionException e) {
+            log.warn("Postings fetch pool is saturated, skipping query with {} terms", terms.size());
+            return emptyResponse(true);
+        }
+
+        try {
+            PostingsResponse postings = bulk.get(remaining(deadline), TimeUnit.NANOSECONDS);
+            if (postings == null) {
+                return emptyResponse(false);
+            }
+            if (postings.getPostings() == null) {
+                postings.setPostings(Collections.emptyList());
+            }
+            return postings;
+        } catch (TimeoutException e) {
+            bulk.cancel(true);
+            log.warn("Postings fetch for {} terms exceeded the {} ms deadline", terms.size(), timeout.toMillis());
+            return emptyResponse(true);
+        } catch (InterruptedException e) {
+            // The request thread is going away, typically because the client disconnected
+            bulk.cancel(true);
+            Thread.currentThread().interrupt();
+            return emptyResponse(true);
+        } catch (ExecutionException e) {
+            log.warn("Bulk postings fetch failed, falling back to per-term fetches: {}", e.getCause().getMessage());
+        }
+        return fetchEachTerm(terms, deadline);
+    }
+
+    private PostingsResponse fetchEachTerm(List<String> terms, long deadline) {
+        List<Future<InvertedIndex>> futures = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            try {
+                // A FutureTask, unlike a CompletableFuture, interrupts its runner on cancel(true)
+                futures.add(executor.submit(() -> indexerClient.findByWord(term)));
+            } catch (RejectedExecutionException e) {
+                // Reported through the partial flag below
+            }
+        }
+
+        List<InvertedIndex> postings = new ArrayList<>(futures.size());
+        int missed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Future<InvertedIndex> future = futures.get(i);
+            try {
+                InvertedIndex index = future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+                if (index != null) {
+                    postings.add(index);
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                missed++;
+            } catch (InterruptedException e) {
+                futures.subList(i, futures.size()).forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                return emptyResponse(true);
+            } catch (ExecutionException e) {
+                // Failed terms are reported through the partial flag below
+            }
+        }
+        if (missed > 0) {
+            log.warn("Per-term postings fetch missed the {} ms deadline for {} of {} terms", timeout.toMillis(),
+                    missed, terms.size());
+        }
+
+        // Without document lengths and collection size the scores differ from a bulk fetch
+        PostingsResponse response = emptyResponse(true);
+        response.setPostings(postings);
+        return response;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0L, deadline - System.nanoTime());
+    }
+
+    private static PostingsResponse emptyResponse(boolean partial) {
+        PostingsResponse response = new PostingsResponse();
+        response.setPostings(Collections.emptyList());
+        response.setPartial(partial);
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,36 @@
+package com.suyash.se.query.indexer;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Postings for the terms of a query plus the collection statistics needed to score them
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostingsResponse {
+    private List<InvertedIndex> postings;
+
+    private Map<Integer, Integer> documentLengths;
+
+    private long totalDocuments;
+
+    private double averageDocumentLength;
+
+    /**
+     * Set locally when some postings did not arrive before the query deadline
+     */
+    @JsonIgnore
+    private boolean partial;
+}
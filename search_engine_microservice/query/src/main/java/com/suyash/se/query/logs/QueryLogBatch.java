@@ -0,0 +1,21 @@
+package com.suyash.se.query.logs;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Query log events flushed together by one query instance, sent as a single record
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryLogBatch {
+
+    private String batchId;
+    private List<QueryLogEvent> events;
+}
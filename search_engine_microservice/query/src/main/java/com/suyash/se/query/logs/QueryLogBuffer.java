@@ -0,0 +1,123 @@
+package com.suyash.se.query.logs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process buffer between the request path and the query-logs topic.
+ * Appending is a lock-free queue offer, so logging never waits on Kafka; a
+ * background thread drains the queue every flush interval and sends the
+ * events in batches. When the buffer is full new events are dropped and
+ * counted rather than slowing down searches.
+ */
+@Component
+@Slf4j
+public class QueryLogBuffer {
+
+    private static final String QUERY_LOGS_TOPIC = "query-logs";
+
+    private final Queue<QueryLogEvent> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ScheduledExecutorService flusher;
+    private final int capacity;
+    private final int batchSize;
+    private final Counter appended;
+    private final Counter dropped;
+
+    public QueryLogBuffer(KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry,
+            @Value("${search.query-log.capacity:100000}") int capacity,
+            @Value("${search.query-log.batch-size:500}") int batchSize,
+            @Value("${search.query-log.flush-interval-ms:200}") long flushIntervalMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.appended = Counter.builder("query.log.appended")
+                .description("Query log events accepted by the buffer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("query.log.dropped")
+                .description("Query log events dropped because the buffer was full")
+                .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void append(QueryLogEvent event) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        events.offer(event);
+        appended.increment();
+    }
+
+    /**
+     * Send everything buffered so far, {@code batchSize} events per record
+     */
+    void flush() {
+        try {
+            while (true) {
+                List<QueryLogEvent> batch = new ArrayList<>(Math.min(batchSize, Math.max(size.get(), 1)));
+                QueryLogEvent event;
+                while (batch.size() < batchSize && (event = events.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                size.addAndGet(-batch.size());
+                send(batch);
+                if (batch.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error flushing query logs", e);
+        }
+    }
+
+    private void send(List<QueryLogEvent> batch) {
+        QueryLogBatch record = QueryLogBatch.builder()
+                .batchId(UUID.randomUUID().toString())
+                .events(batch)
+                .build();
+        kafkaTemplate.send(QUERY_LOGS_TOPIC, record.getBatchId(), record)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Failed to publish {} query log events: {}", batch.size(), ex.getMessage());
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
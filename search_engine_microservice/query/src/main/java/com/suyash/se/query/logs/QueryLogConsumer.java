@@ -0,0 +1,34 @@
+package com.suyash.se.query.logs;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.warmup.QueryPopularityService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QueryLogConsumer {
+
+    private final QueryPopularityService popularityService;
+
+    /**
+     * The rolling windows live in Redis and are shared by all query
+     * instances, so each batch is aggregated once by a shared consumer group
+     */
+    @KafkaListener(
+        topics = "query-logs",
+        groupId = "query-log-aggregation",
+        containerFactory = "queryLogListenerContainerFactory"
+    )
+    public void onQueryLogs(QueryLogBatch batch) {
+        if (batch == null || batch.getEvents() == null || batch.getEvents().isEmpty()) {
+            return;
+        }
+        log.debug("Received query log batch {} with {} events", batch.getBatchId(), batch.getEvents().size());
+        popularityService.recordBatch(batch.getEvents());
+    }
+}
@@ -0,0 +1,22 @@
+package com.suyash.se.query.logs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One search: the query in display form, its normalized cache key and the
+ * number of ranked results
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueryLogEvent {
+
+    private String query;
+    private String normalizedQuery;
+    private Integer resultCount;
+    private long timestamp;
+}
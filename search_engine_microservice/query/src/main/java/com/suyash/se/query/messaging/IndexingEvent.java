@@ -0,0 +1,23 @@
+package com.suyash.se.query.messaging;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published by the indexer after each indexed batch with the terms whose postings changed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexingEvent {
+
+    private String eventId;
+    private List<String> terms;
+    private List<Integer> documentIds;
+    private long timestamp;
+}
@@ -0,0 +1,36 @@
+package com.suyash.se.query.messaging;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.cache.QueryResultCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexingEventConsumer {
+
+    private final QueryResultCache resultCache;
+
+    /**
+     * Every query instance holds its own L1 cache, so each one consumes every
+     * event through a consumer group of its own. The group is named after the
+     * instance rather than a random id, so a restart rejoins it instead of
+     * leaving an abandoned group behind, and resumes from its committed offset.
+     */
+    @KafkaListener(
+        topics = "indexing-events",
+        groupId = "query-cache-invalidation-${spring.application.instance-id:${HOSTNAME:local}}",
+        containerFactory = "indexingEventListenerContainerFactory"
+    )
+    public void onIndexingEvent(IndexingEvent event) {
+        if (event == null || event.getTerms() == null) {
+            return;
+        }
+        log.debug("Received indexing event {} with {} changed terms", event.getEventId(), event.getTerms().size());
+        resultCache.invalidateTerms(event.getTerms());
+    }
+}
@@ -1,25 +1,41 @@
 package com.suyash.se.query.query;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.suyash.se.query.cache.RedisCacheService;
-import com.suyash.se.query.crawler.CrawledPage;
+import com.suyash.se.query.cache.CachedQueryResult;
+import com.suyash.se.query.cache.QueryResultCache;
+import com.suyash.se.query.cache.SingleFlight;
+import com.suyash.se.query.crawler.CrawledPageSummary;
 import com.suyash.se.query.crawler.CrawlerClient;
-import com.suyash.se.query.indexer.IndexerClient;
 import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsFetcher;
+import com.suyash.se.query.indexer.PostingsResponse;
+import com.suyash.se.query.logs.QueryLogBuffer;
+import com.suyash.se.query.logs.QueryLogEvent;
+import com.suyash.se.query.query.scoring.Scorer;
+import com.suyash.se.query.query.scoring.WandSearcher;
+import com.suyash.se.query.query.utils.Postings;
+import com.suyash.se.query.query.utils.QueryNormalizer;
+import com.suyash.se.query.query.utils.TopKCollector;
 import com.suyash.se.query.query.utils.Trie;
-import com.suyash.se.query.suggestions.utils.EditDistance;
+import com.suyash.se.query.suggestions.CorrectionIndex;
+import com.suyash.se.query.suggestions.dictionary.SuggestionDictionaryService;
+import com.suyash.se.query.suggestions.history.UserSearchHistoryStore;
 import com.suyash.se.query.suggestions.utils.NGramModel;
 
 import jakarta.annotation.PostConstruct;
@@ -32,73 +48,85 @@ import lombok.extern.slf4j.Slf4j;
 public class QueryService {
 
     private final CrawlerClient crawlerClient;
-    private final IndexerClient indexerClient;
-    private final RedisCacheService<String, List<Integer>> cacheService;
-
-    private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
-    private static final Set<String> STOP_WORDS = Set.of("the", "and", "is", "in", "to", "of", "a", "for");
+    private final PostingsFetcher postingsFetcher;
+    private final QueryResultCache resultCache;
+    private final SingleFlight singleFlight;
+    private final CorrectionIndex correctionIndex;
+    private final SuggestionDictionaryService suggestionDictionary;
+    private final UserSearchHistoryStore searchHistory;
+    private final QueryLogBuffer queryLog;
+    private final Scorer scorer;
+
+    private static final String BOOLEAN_KEY_PREFIX = "boolean|";
+    private static final int SUMMARY_BATCH_SIZE = 500;
+    private static final String RETRIEVAL_MODE_WAND = "wand";
 
     private Trie queryTrie = new Trie();
+    @Value("${search.suggestions.trie.max-words:100000}")
+    private int maxTrieWords;
     private NGramModel nGramModel = new NGramModel(2);
-    private final Map<String, List<String>> userSearchHistory = new java.util.concurrent.ConcurrentHashMap<>();
-    private static final int MAX_HISTORY_PER_USER = 100;
-    private static final int MAX_USERS = 10000;
+    @Value("${search.retrieval.mode:exhaustive}")
+    private String retrievalMode;
+    @Value("${search.cache.max-depth:100}")
+    private int maxCachedDepth;
+
     private AtomicInteger queryCount = new AtomicInteger(0);
     private AtomicInteger cacheHitCount = new AtomicInteger(0);
 
-    // Populate Trie with frequent queries from cache
+    /**
+     * Seed the suggestion models at startup. Corrections come from the counted
+     * popular queries. The cached queries are enumerated once, and only when
+     * no suggestion dictionary was left by a previous run, since that walks
+     * the whole result cache.
+     */
     @PostConstruct
-    public void populateTrie() {
-        try {
-            cacheService.asMap().keySet().forEach(queryTrie::insert);
-            log.info("Populated query trie with {} entries", cacheService.asMap().size());
-        } catch (Exception e) {
-            log.error("Error populating trie: {}", e.getMessage());
+    public void populateSuggestions() {
+        queryTrie = new Trie(maxTrieWords);
+        correctionIndex.rebuild();
+        if (suggestionDictionary.isAvailable()) {
+            return;
         }
-    }
-
-    @PostConstruct
-    public void trainNGramModel() {
         try {
-            List<String> frequentQueries = new ArrayList<>(cacheService.asMap().keySet());
-            nGramModel.train(frequentQueries);
-            log.info("Trained N-gram model with {} queries", frequentQueries.size());
+            List<String> cachedQueries = new ArrayList<>(resultCache.cachedQueries());
+            cachedQueries.forEach(cachedQuery -> queryTrie.insert(QueryNormalizer.displayForm(cachedQuery)));
+            nGramModel.train(cachedQueries);
+            log.info("Populated query trie and n-gram model with {} cached queries", cachedQueries.size());
         } catch (Exception e) {
-            log.error("Error training N-gram model: {}", e.getMessage());
+            log.error("Error populating suggestions from the cache: {}", e.getMessage());
         }
     }
 
-    public void logUserQuery(String userId, String query) {
-        if (userId == null || query == null) {
-            return;
-        }
-
-        // Limit total number of users to prevent memory issues
-        if (userSearchHistory.size() >= MAX_USERS && !userSearchHistory.containsKey(userId)) {
-            log.warn("Maximum number of users reached ({}), not storing history for new user: {}", MAX_USERS, userId);
-            return;
-        }
+    /**
+     * Make n-grams observed since the last run visible to suggestions
+     */
+    @Scheduled(fixedDelayString = "${search.suggestions.ngram.publish-interval-ms:5000}")
+    public void publishNGramModel() {
+        nGramModel.publish();
+    }
 
-        userSearchHistory.computeIfAbsent(userId, k -> new ArrayList<>()).add(query);
+    /**
+     * Make queries searched since the last run visible to trie suggestions
+     */
+    @Scheduled(fixedDelayString = "${search.suggestions.trie.publish-interval-ms:1000}")
+    public void publishTrie() {
+        queryTrie.publish();
+    }
 
-        // Limit history per user
-        List<String> history = userSearchHistory.get(userId);
-        if (history.size() > MAX_HISTORY_PER_USER) {
-            // Remove oldest entries
-            history.subList(0, history.size() - MAX_HISTORY_PER_USER).clear();
-        }
+    /**
+     * Remember a query the client reports for a user. Only the user's history
+     * uses it: popularity is counted from searches, which carry the cache key
+     * and result count, and a reported query usually also ran as a search.
+     */
+    public void logUserQuery(String userId, String query) {
+        searchHistory.record(userId, query);
     }
 
     public List<String> getContextAwareSuggestions(String userId, String prefix) {
-        List<String> history = userSearchHistory.getOrDefault(userId, Collections.emptyList());
         Map<String, Integer> contextScores = new HashMap<>();
 
         // Prioritize suggestions based on user history
-        for (String pastQuery : history) {
-            if (pastQuery.startsWith(prefix)) {
-                contextScores.put(pastQuery, contextScores.getOrDefault(pastQuery, 0) + 5); // Higher weight for history
-            }
-        }
+        searchHistory.startingWith(userId, prefix)
+                .forEach((pastQuery, occurrences) -> contextScores.put(pastQuery, occurrences * 5)); // Higher weight for history
 
         // Combine with N-gram suggestions
         List<String> nGramSuggestions = nGramModel.getSuggestions(prefix);
@@ -117,54 +145,45 @@ public class QueryService {
     public List<Integer> processQuery(String query, int topK) {
         queryCount.incrementAndGet();
 
+        // Tokenize and normalize the query
+        List<String> lookupTerms = QueryNormalizer.terms(query);
+        String cacheKey = BOOLEAN_KEY_PREFIX + QueryNormalizer.canonicalKey(lookupTerms);
+
         // Check cache first
-        List<Integer> cachedResults = cacheService.getIfPresent(query);
-        if (cachedResults != null) {
+        CachedQueryResult cachedResults = resultCache.get(cacheKey);
+        if (cachedResults != null && cachedResults.covers(topK)) {
             log.debug("Cache hit for query: {}", query);
             cacheHitCount.incrementAndGet();
-            return cachedResults;
+            return head(cachedResults.getDocIds(), topK);
         }
 
-        // Tokenize and normalize the query
-        String[] queryTerms = tokenize(query);
-
-        // Retrieve document IDs for each term
-        Map<String, Set<Integer>> termToDocIds = new HashMap<>();
-        for (String term : queryTerms) {
-            if (!STOP_WORDS.contains(term)) {
-                InvertedIndex index = indexerClient.findByWord(term);
-                if (index != null) {
-                    termToDocIds.put(term, new HashSet<>(index.getDocumentIds()));
-                }
-            }
+        long startTime = System.currentTimeMillis();
+        int depth = Math.max(topK, maxCachedDepth);
+
+        // Retrieve document IDs for all terms in one round trip
+        List<int[]> termDocIds = new ArrayList<>();
+        PostingsResponse postings = postingsFetcher.fetch(lookupTerms);
+        for (InvertedIndex index : postings.getPostings()) {
+            termDocIds.add(Postings.sortedUnique(index.getDocumentIds()));
         }
 
         // Combine results using Boolean AND logic
-        Set<Integer> resultDocIds = null;
-        for (Set<Integer> docIds : termToDocIds.values()) {
-            if (resultDocIds == null) {
-                resultDocIds = new HashSet<>(docIds);
-            } else {
-                resultDocIds.retainAll(docIds); // Intersection of sets
-            }
-        }
+        int[] resultDocIds = Postings.intersect(termDocIds);
 
         // Rank documents by relevance (simple frequency-based ranking)
-        if (resultDocIds == null || resultDocIds.isEmpty()) {
-            return Collections.emptyList();
-        }
+        List<Integer> rankedResults = rankDocuments(resultDocIds, termDocIds, depth);
 
-        // Rank documents by relevance
-        List<Integer> rankedResults = rankDocuments(resultDocIds, termToDocIds, topK);
-
-        // Store results in cache
-        cacheService.put(query, rankedResults);
+        // Store results in cache, including empty ones, unless some postings were missing
+        if (!postings.isPartial()) {
+            resultCache.put(cacheKey, query, rankedResults, null, depth, System.currentTimeMillis() - startTime);
+        }
 
-        return rankedResults;
+        return head(rankedResults, topK);
     }
 
     public SearchResponse processQuery(String query, int topK, int page, int size) {
-        List<Integer> allResults = processQueryWithRanking(query, topK);
+        RankedResults ranked = rankQuery(query, topK);
+        List<Integer> allResults = ranked.getDocIds();
         int start = (page - 1) * size;
         int end = Math.min(start + size, allResults.size());
         List<Integer> pagedResults = Collections.emptyList();
@@ -172,21 +191,7 @@ public class QueryService {
             pagedResults = allResults.subList(start, end);
         }
 
-        List<UrlResponse> urlResponses = pagedResults.stream()
-                .map(docId -> {
-                    CrawledPage pageObj = crawlerClient.findById((long) docId).orElse(null);
-                    if (pageObj == null) {
-                        return null;
-                    }
-                    return UrlResponse.builder()
-                            .documentId(pageObj.getId())
-                            .title(pageObj.getTitle())
-                            .url(pageObj.getUrl())
-                            .shortContent(pageObj.getShortContent())
-                            .build();
-                })
-                .filter(Objects::nonNull)
-                .toList();
+        List<UrlResponse> urlResponses = toUrlResponses(pagedResults);
 
         return SearchResponse.builder()
                 .documents(urlResponses)
@@ -194,13 +199,17 @@ public class QueryService {
                 .totalPages((int) Math.ceil((double) allResults.size() / size))
                 .currentPage(page)
                 .pageSize(size)
+                .partial(ranked.isPartial())
                 .build();
     }
 
     public SearchResponse processMultipleQuery(List<String> query, int topK, int page, int size) {
         List<Integer> allResults = new ArrayList<>();
+        boolean partial = false;
         for (String q : query) {
-            allResults.addAll(processQueryWithRanking(q, topK / query.size()));
+            RankedResults ranked = rankQuery(q, topK / query.size());
+            allResults.addAll(ranked.getDocIds());
+            partial |= ranked.isPartial();
         }
         int start = (page - 1) * size;
         int end = Math.min(start + size, allResults.size());
@@ -209,21 +218,7 @@ public class QueryService {
             pagedResults = allResults.subList(start, end);
         }
 
-        List<UrlResponse> urlResponses = pagedResults.stream()
-                .map(docId -> {
-                    CrawledPage pageObj = crawlerClient.findById((long) docId).orElse(null);
-                    if (pageObj == null) {
-                        return null;
-                    }
-                    return UrlResponse.builder()
-                            .documentId(pageObj.getId())
-                            .title(pageObj.getTitle())
-                            .url(pageObj.getUrl())
-                            .shortContent(pageObj.getShortContent())
-                            .build();
-                })
-                .filter(Objects::nonNull)
-                .toList();
+        List<UrlResponse> urlResponses = toUrlResponses(pagedResults);
 
         return SearchResponse.builder()
                 .documents(urlResponses)
@@ -231,129 +226,220 @@ public class QueryService {
                 .totalPages((int) Math.ceil((double) allResults.size() / size))
                 .currentPage(page)
                 .pageSize(size)
+                .partial(partial)
                 .build();
     }
 
     public List<Integer> processQueryWithRanking(String query, int topK) {
-        queryCount.incrementAndGet();
+        return rankQuery(query, topK).getDocIds();
+    }
 
-        // Check cache first
-        List<Integer> cachedResults = cacheService.getIfPresent(query);
-        if (cachedResults != null) {
-            log.debug("Cache hit for query: {}", query);
-            cacheHitCount.incrementAndGet();
-            return cachedResults;
+    /**
+     * Make sure the full-depth ranking of the query is cached, without counting it as a search
+     */
+    public void warmQuery(String query) {
+        rankQuery(query, maxCachedDepth, false);
+    }
+
+    private RankedResults rankQuery(String query, int topK) {
+        return rankQuery(query, topK, true);
+    }
+
+    private RankedResults rankQuery(String query, int topK, boolean userQuery) {
+        // Tokenize and normalize the query into its cache key
+        List<String> queryTerms = QueryNormalizer.terms(query);
+        String cacheKey = QueryNormalizer.canonicalKey(queryTerms);
+        // Warm-up only knows the cache key, which must not be offered back as a suggestion
+        String typedQuery = userQuery ? query : null;
+        if (userQuery) {
+            queryCount.incrementAndGet();
         }
 
-        // Tokenize and normalize the query
-        String[] queryTerms = tokenize(query);
-
-        // Retrieve document IDs for each term
-        Map<String, Set<Integer>> termToDocIds = new HashMap<>();
-        Map<Integer, Double> docScores = new HashMap<>();
-
-        for (String term : queryTerms) {
-            InvertedIndex index = indexerClient.findByWord(term);
-            if (index != null) {
-                termToDocIds.put(term, new HashSet<>(index.getDocumentIds()));
-
-                // Calculate frequency-based scores
-                for (Integer docId : index.getDocumentIds()) {
-                    CrawledPage page = crawlerClient.findById((long) docId).orElse(null);
-                    if (page != null) {
-                        double positionScore = calculatePositionScore(page.getContent(), term);
-                        docScores.put(docId, docScores.getOrDefault(docId, 0.0) + positionScore);
-                    }
-                }
+        // Check cache first; entries hold a ranking deeper than most requests ask for
+        CachedQueryResult cachedResults = resultCache.get(cacheKey);
+        if (cachedResults != null && cachedResults.covers(topK)) {
+            log.debug("Cache hit for query: {}", query);
+            if (userQuery) {
+                cacheHitCount.incrementAndGet();
+            }
+            if (resultCache.shouldRefreshEarly(cachedResults)) {
+                // Recompute ahead of expiry while this caller is served the cached copy
+                int cachedDepth = cachedResults.getDepth();
+                resultCache.refreshInBackground(cacheKey, () -> singleFlight.execute(cacheKey + "|" + cachedDepth,
+                        () -> computeRanking(typedQuery, cacheKey, queryTerms, cachedDepth)));
+            }
+            if (userQuery) {
+                recordSearch(query, cacheKey, cachedResults.getDocIds());
             }
+            return new RankedResults(head(cachedResults.getDocIds(), topK), false);
         }
 
-        // Combine results using Boolean AND logic
-        Set<Integer> resultDocIds = null;
-        for (Set<Integer> docIds : termToDocIds.values()) {
-            if (resultDocIds == null) {
-                resultDocIds = new HashSet<>(docIds);
-            } else {
-                resultDocIds.retainAll(docIds); // Intersection of sets
+        // Concurrent misses for the same query share one computation
+        int depth = Math.max(topK, maxCachedDepth);
+        RankedResults ranked = singleFlight.execute(cacheKey + "|" + depth,
+                () -> computeRanking(typedQuery, cacheKey, queryTerms, depth));
+        if (userQuery) {
+            recordSearch(query, cacheKey, ranked.getDocIds());
+        }
+        return new RankedResults(head(ranked.getDocIds(), topK), ranked.isPartial());
+    }
+
+    /**
+     * Feed a search to the local suggestion models and the query log; queries
+     * without results are not suggested
+     */
+    private void recordSearch(String query, String cacheKey, List<Integer> docIds) {
+        String displayQuery = QueryNormalizer.displayForm(query);
+        if (!docIds.isEmpty()) {
+            queryTrie.record(displayQuery);
+            nGramModel.observe(displayQuery);
+        }
+        queryLog.append(QueryLogEvent.builder()
+                .query(displayQuery)
+                .normalizedQuery(cacheKey)
+                .resultCount(docIds.size())
+                .timestamp(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * Rank the query down to {@code depth} results and cache the full ranking
+     *
+     * @param query the query as typed, or null when it is not a user's search
+     */
+    private RankedResults computeRanking(String query, String cacheKey, List<String> queryTerms, int depth) {
+        long startTime = System.currentTimeMillis();
+
+        // Retrieve document IDs for all terms concurrently under one deadline
+        PostingsResponse postings = postingsFetcher.fetch(queryTerms);
+        List<InvertedIndex> termPostings = postings.getPostings();
+        List<int[]> termDocIds = new ArrayList<>(termPostings.size());
+        for (InvertedIndex index : termPostings) {
+            termDocIds.add(Postings.sortedUnique(index.getDocumentIds()));
+        }
+
+        int[] resultDocIds;
+        double[] docScores;
+        if (RETRIEVAL_MODE_WAND.equalsIgnoreCase(retrievalMode)) {
+            // Document-at-a-time over the union of the postings, skipping documents
+            // whose upper bound cannot reach the current top k
+            TopKCollector topDocuments = WandSearcher.search(termPostings, termDocIds, scorer, postings, depth);
+            resultDocIds = topDocuments.sortedDocIds();
+            docScores = topDocuments.sortedScores();
+        } else {
+            // Combine results using Boolean AND logic
+            resultDocIds = Postings.intersect(termDocIds);
+
+            // Score the surviving documents from the statistics carried by the postings
+            docScores = new double[resultDocIds.length];
+            for (InvertedIndex index : termPostings) {
+                for (int i = 0; i < resultDocIds.length; i++) {
+                    docScores[i] += scorer.score(index, resultDocIds[i], postings);
+                }
             }
         }
 
         // Rank documents by frequency-based scores
-        List<Integer> rankedResults = frequencyRankedDocuments(resultDocIds, docScores, topK);
-        // Store results in cache
-        cacheService.put(query, rankedResults);
-        return rankedResults;
+        TopKCollector topDocuments = frequencyRankedDocuments(resultDocIds, docScores, depth);
+        List<Integer> rankedResults = topDocuments.toSortedList();
+        if (query != null && !rankedResults.isEmpty()) {
+            correctionIndex.addQuery(query);
+        }
+        // Store results in cache, empty ones with a short TTL, unless some postings were missing
+        if (!postings.isPartial()) {
+            resultCache.put(cacheKey, query, rankedResults, topDocuments.sortedScores(), depth,
+                    System.currentTimeMillis() - startTime);
+        }
+        return new RankedResults(rankedResults, postings.isPartial());
     }
 
-    private List<Integer> frequencyRankedDocuments(Set<Integer> docIds, Map<Integer, Double> docScores, int topK) {
-        if (docIds == null) {
-            return Collections.emptyList();
+    private TopKCollector frequencyRankedDocuments(int[] docIds, double[] docScores, int topK) {
+        TopKCollector topDocuments = new TopKCollector(topK);
+        if (docIds.length == 0) {
+            return topDocuments;
         }
 
         // Pre-fetch all page rank scores to avoid N+1 query problem
-        Map<Integer, Double> pageRankScores = new HashMap<>();
-        for (Integer docId : docIds) {
+        Map<Integer, CrawledPageSummary> summaries = fetchSummaries(Arrays.stream(docIds).boxed().toList());
+        for (int i = 0; i < docIds.length; i++) {
+            CrawledPageSummary summary = summaries.get(docIds[i]);
+            topDocuments.collect(docIds[i], docScores[i] + (summary != null ? summary.getPageRankScore() : 0.0));
+        }
+        return topDocuments;
+    }
+
+    /**
+     * Fetch result summaries for the given documents, batching the ids so that a
+     * result page costs one call to the crawler instead of one call per document
+     */
+    private Map<Integer, CrawledPageSummary> fetchSummaries(Collection<Integer> docIds) {
+        Map<Integer, CrawledPageSummary> summaries = new HashMap<>();
+        List<Long> ids = docIds.stream().map(Integer::longValue).distinct().toList();
+        for (int from = 0; from < ids.size(); from += SUMMARY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + SUMMARY_BATCH_SIZE, ids.size()));
             try {
-                CrawledPage page = crawlerClient.findById((long) docId).orElse(null);
-                if (page != null) {
-                    pageRankScores.put(docId, page.getPageRankScore());
-                } else {
-                    pageRankScores.put(docId, 0.0);
+                List<CrawledPageSummary> pages = crawlerClient.findByIds(batch);
+                if (pages != null) {
+                    for (CrawledPageSummary page : pages) {
+                        summaries.put(Math.toIntExact(page.getId()), page);
+                    }
                 }
             } catch (Exception e) {
-                log.warn("Error fetching page rank for document {}: {}", docId, e.getMessage());
-                pageRankScores.put(docId, 0.0);
+                log.warn("Error fetching summaries for {} documents: {}", batch.size(), e.getMessage());
             }
         }
+        return summaries;
+    }
 
+    private List<UrlResponse> toUrlResponses(List<Integer> docIds) {
+        Map<Integer, CrawledPageSummary> summaries = fetchSummaries(docIds);
         return docIds.stream()
-                .sorted((id1, id2) -> {
-                    double score1 = docScores.getOrDefault(id1, 0.0) + pageRankScores.getOrDefault(id1, 0.0);
-                    double score2 = docScores.getOrDefault(id2, 0.0) + pageRankScores.getOrDefault(id2, 0.0);
-                    return Double.compare(score2, score1);
-                })
-                .limit(topK)
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .map(page -> UrlResponse.builder()
+                        .documentId(page.getId())
+                        .title(page.getTitle())
+                        .url(page.getUrl())
+                        .shortContent(page.getShortContent())
+                        .build())
                 .toList();
     }
 
-    private String[] tokenize(String text) {
-        return WORD_PATTERN.matcher(text.toLowerCase()).results()
-                .map(match -> match.group())
-                .toArray(String[]::new);
+    private static List<Integer> head(List<Integer> docIds, int topK) {
+        return docIds.size() <= topK ? docIds : docIds.subList(0, Math.max(0, topK));
     }
 
-    private double calculatePositionScore(String content, String term) {
-        int index = content.toLowerCase().indexOf(term.toLowerCase());
-        if (index == -1) {
-            return 0.0; // Term not found
-        }
-        // Higher score for terms appearing earlier in the content
-        return 1.0 / (index + 1);
-    }
-
-    private List<Integer> rankDocuments(Set<Integer> docIds, Map<String, Set<Integer>> termToDocIds, int topK) {
+    private List<Integer> rankDocuments(int[] docIds, List<int[]> termDocIds, int topK) {
         // Simple ranking based on term frequency
-        Map<Integer, Integer> docScores = new HashMap<>();
-        for (Integer docId : docIds) {
+        TopKCollector topDocuments = new TopKCollector(topK);
+        for (int docId : docIds) {
             int score = 0;
-            for (Set<Integer> docList : termToDocIds.values()) {
-                if (docList.contains(docId)) {
+            for (int[] docList : termDocIds) {
+                if (Arrays.binarySearch(docList, docId) >= 0) {
                     score++;
                 }
             }
-            docScores.put(docId, score);
+            topDocuments.collect(docId, score);
         }
 
-        // Sort documents by score in descending order
-        return docScores.entrySet().stream()
-                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
-                .limit(topK)
-                .map(Map.Entry::getKey)
-                .toList();
+        // Documents ordered by score in descending order
+        return topDocuments.toSortedList();
     }
 
+    /**
+     * Completions from the suggestion dictionary, then queries seen since it was last built
+     */
     public List<String> getSuggestionsTrie(String prefix) {
-        return queryTrie.getSuggestions(prefix);
+        String normalizedPrefix = QueryNormalizer.displayPrefix(prefix);
+        Set<String> suggestions = new LinkedHashSet<>(
+                suggestionDictionary.complete(normalizedPrefix, Trie.TOP_K));
+        for (String recent : queryTrie.getSuggestions(normalizedPrefix)) {
+            if (suggestions.size() >= Trie.TOP_K) {
+                break;
+            }
+            suggestions.add(recent);
+        }
+        return new ArrayList<>(suggestions);
     }
 
     public List<String> getSuggestionsNGram(String prefix) {
@@ -367,10 +453,11 @@ public class QueryService {
             return results;
         }
 
+        Map<Integer, CrawledPageSummary> summaries = fetchSummaries(results);
         return results.stream()
                 .filter(docId -> {
-                    CrawledPage page = crawlerClient.findById((long) docId).orElse(null);
-                    return page != null && page.getTags().containsAll(tags);
+                    CrawledPageSummary summary = summaries.get(docId);
+                    return summary != null && summary.getTags() != null && summary.getTags().containsAll(tags);
                 })
                 .toList();
     }
@@ -399,24 +486,7 @@ public class QueryService {
     }
 
     private SearchResponse suggestCorrections(String query, int topK, int page, int size) {
-        Set<String> allQueries = new HashSet<>(cacheService.asMap().keySet());
-        Map<String, Integer> corrections = new HashMap<>();
-        for (String cachedQuery : allQueries) {
-            int distance = EditDistance.calculate(query, cachedQuery);
-            if (distance <= query.length() / 3) {
-                corrections.put(cachedQuery, distance);
-            }
-        }
-
-        allQueries.addAll(getContextAwareSuggestions("anonymous", query));
-        allQueries.addAll(getSuggestionsNGram(query));
-        allQueries.addAll(getSuggestionsTrie(query));
-
-        List<String> topQueries = corrections.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue())
-                .limit(topK)
-                .map(Map.Entry::getKey)
-                .toList();
+        List<String> topQueries = correctionIndex.corrections(query, topK);
         return processMultipleQuery(topQueries, topK, page, size);
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.suyash.se.query.query;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ranked document ids of a query, flagged partial when some postings missed the deadline
+ */
+@Getter
+@AllArgsConstructor
+class RankedResults {
+    private final List<Integer> docIds;
+    private final boolean partial;
+}
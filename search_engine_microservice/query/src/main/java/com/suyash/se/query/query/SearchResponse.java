@@ -18,4 +18,5 @@ public class SearchResponse{
         int totalPages;
         int currentPage;
         int pageSize;
+        boolean partial;
 }
@@ -0,0 +1,60 @@
+package com.suyash.se.query.query.scoring;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsResponse;
+
+/**
+ * Okapi BM25 over term frequency, document frequency and document length
+ */
+@Component
+@ConditionalOnProperty(name = "search.scoring.algorithm", havingValue = "bm25", matchIfMissing = true)
+public class Bm25Scorer implements Scorer {
+
+    private final double k1;
+    private final double b;
+
+    public Bm25Scorer(@Value("${search.scoring.bm25.k1:1.2}") double k1,
+            @Value("${search.scoring.bm25.b:0.75}") double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    @Override
+    public double score(InvertedIndex postings, int docId, PostingsResponse statistics) {
+        double idf = idf(postings, statistics);
+
+        Map<Integer, Integer> termFrequencies = postings.getTermFrequencies();
+        int tf = termFrequencies != null ? termFrequencies.getOrDefault(docId, 1) : 1;
+
+        // Without collection statistics every document is treated as average length
+        double averageLength = statistics.getAverageDocumentLength() > 0 ? statistics.getAverageDocumentLength() : 1.0;
+        Map<Integer, Integer> documentLengths = statistics.getDocumentLengths();
+        Integer length = documentLengths != null ? documentLengths.get(docId) : null;
+        double documentLength = length != null ? length : averageLength;
+
+        return idf * tf * (k1 + 1) / (tf + k1 * (1 - b + b * documentLength / averageLength));
+    }
+
+    @Override
+    public double upperBound(InvertedIndex postings, PostingsResponse statistics) {
+        double idf = idf(postings, statistics);
+        Integer maxTermFrequency = postings.getMaxTermFrequency();
+        if (maxTermFrequency == null || maxTermFrequency <= 0) {
+            return idf * (k1 + 1); // Limit of the tf component as tf grows
+        }
+        // The tf component grows with tf and shrinks with length, so bound it at length zero
+        return idf * maxTermFrequency * (k1 + 1) / (maxTermFrequency + k1 * (1 - b));
+    }
+
+    private double idf(InvertedIndex postings, PostingsResponse statistics) {
+        int df = postings.getDocumentIds().length;
+        long totalDocuments = Math.max(statistics.getTotalDocuments(), df);
+        return Math.log(1 + (totalDocuments - df + 0.5) / (df + 0.5));
+    }
+}
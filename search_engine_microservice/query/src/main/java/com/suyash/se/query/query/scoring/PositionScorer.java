@@ -0,0 +1,32 @@
+package com.suyash.se.query.query.scoring;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsResponse;
+
+/**
+ * Original heuristic: terms that appear earlier in the document score higher
+ */
+@Component
+@ConditionalOnProperty(name = "search.scoring.algorithm", havingValue = "position")
+public class PositionScorer implements Scorer {
+
+    @Override
+    public double score(InvertedIndex postings, int docId, PostingsResponse statistics) {
+        Map<Integer, Integer> firstPositions = postings.getFirstPositions();
+        Integer firstPosition = firstPositions != null ? firstPositions.get(docId) : null;
+        if (firstPosition == null) {
+            return 0.0; // Position not recorded for this document
+        }
+        return 1.0 / (firstPosition + 1);
+    }
+
+    @Override
+    public double upperBound(InvertedIndex postings, PostingsResponse statistics) {
+        return 1.0; // Term at the very start of the document
+    }
+}
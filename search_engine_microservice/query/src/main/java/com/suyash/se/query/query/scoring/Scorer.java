@@ -0,0 +1,23 @@
+package com.suyash.se.query.query.scoring;
+
+import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsResponse;
+
+/**
+ * Scores a document for a single query term using only data carried by the
+ * postings response. The active implementation is chosen with
+ * {@code search.scoring.algorithm} (bm25, tfidf or position).
+ */
+public interface Scorer {
+
+    /**
+     * Contribution of {@code postings.getWord()} to the score of {@code docId}
+     */
+    double score(InvertedIndex postings, int docId, PostingsResponse statistics);
+
+    /**
+     * Highest score any document can get from this term, used to skip documents
+     * that cannot enter the top k
+     */
+    double upperBound(InvertedIndex postings, PostingsResponse statistics);
+}
@@ -0,0 +1,34 @@
+package com.suyash.se.query.query.scoring;
+
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsResponse;
+
+/**
+ * Uses the tf-idf weights precomputed by the indexer
+ */
+@Component
+@ConditionalOnProperty(name = "search.scoring.algorithm", havingValue = "tfidf")
+public class TfIdfScorer implements Scorer {
+
+    @Override
+    public double score(InvertedIndex postings, int docId, PostingsResponse statistics) {
+        Map<Integer, Double> tfidfScores = postings.getTfidfScores();
+        return tfidfScores != null ? tfidfScores.getOrDefault(docId, 0.0) : 0.0;
+    }
+
+    @Override
+    public double upperBound(InvertedIndex postings, PostingsResponse statistics) {
+        if (postings.getMaxScore() != null) {
+            return postings.getMaxScore();
+        }
+        Map<Integer, Double> tfidfScores = postings.getTfidfScores();
+        return tfidfScores != null
+                ? tfidfScores.values().stream().mapToDouble(Double::doubleValue).max().orElse(0.0)
+                : 0.0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.suyash.se.query.query.scoring;
+
+import java.util.List;
+
+import com.suyash.se.query.indexer.InvertedIndex;
+import com.suyash.se.query.indexer.PostingsResponse;
+import com.suyash.se.query.query.utils.Postings;
+import com.suyash.se.query.query.utils.TopKCollector;
+
+/**
+ * Document-at-a-time top-k retrieval with WAND pruning. Documents matching any
+ * of the terms are candidates; a document is only scored once the summed
+ * upper bounds of the terms positioned on it can beat the current k-th score,
+ * and cursors jump over everything before that pivot document.
+ */
+public final class WandSearcher {
+
+    private static final int END = Integer.MAX_VALUE;
+
+    private WandSearcher() {
+    }
+
+    /**
+     * @param postings postings of each term
+     * @param docIds   sorted document ids of each term, aligned with {@code postings}
+     */
+    public static TopKCollector search(List<InvertedIndex> postings, List<int[]> docIds, Scorer scorer,
+            PostingsResponse statistics, int k) {
+        TopKCollector topDocuments = new TopKCollector(k);
+        int terms = postings.size();
+        if (terms == 0 || k <= 0) {
+            return topDocuments;
+        }
+
+        int[][] lists = docIds.toArray(new int[0][]);
+        int[] positions = new int[terms];
+        double[] upperBounds = new double[terms];
+        int[] order = new int[terms];
+        for (int t = 0; t < terms; t++) {
+            upperBounds[t] = scorer.upperBound(postings.get(t), statistics);
+            order[t] = t;
+        }
+
+        while (true) {
+            sortByCurrentDocument(order, lists, positions);
+
+            // Find the first term at which the accumulated upper bound beats the threshold
+            double threshold = topDocuments.threshold();
+            double bound = 0.0;
+            int pivot = -1;
+            for (int j = 0; j < terms; j++) {
+                int term = order[j];
+                if (current(lists, positions, term) == END) {
+                    break;
+                }
+                bound += upperBounds[term];
+                if (bound > threshold) {
+                    pivot = j;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                break; // No remaining document can enter the top k
+            }
+
+            int pivotDoc = current(lists, positions, order[pivot]);
+            if (current(lists, positions, order[0]) == pivotDoc) {
+                // Every term up to the pivot sits on the pivot document, so score it fully
+                double score = 0.0;
+                for (int j = 0; j < terms; j++) {
+                    int term = order[j];
+                    if (current(lists, positions, term) != pivotDoc) {
+                        break;
+                    }
+                    score += scorer.score(postings.get(term), pivotDoc, statistics);
+                    positions[term]++;
+                }
+                topDocuments.collect(pivotDoc, score);
+            } else {
+                // Skip the lagging cursor straight to the pivot document
+                int term = order[0];
+                positions[term] = Postings.gallop(lists[term], positions[term], pivotDoc);
+            }
+        }
+        return topDocuments;
+    }
+
+    private static int current(int[][] lists, int[] positions, int term) {
+        return positions[term] < lists[term].length ? lists[term][positions[term]] : END;
+    }
+
+    private static void sortByCurrentDocument(int[] order, int[][] lists, int[] positions) {
+        // Insertion sort: queries have few terms and the order changes little between steps
+        for (int i = 1; i < order.length; i++) {
+            int term = order[i];
+            int doc = current(lists, positions, term);
+            int j = i - 1;
+            while (j >= 0 && current(lists, positions, order[j]) > doc) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = term;
+        }
+    }
+}
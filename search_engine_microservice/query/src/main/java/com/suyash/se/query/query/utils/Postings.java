@@ -0,0 +1,107 @@
+package com.suyash.se.query.query.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helpers for postings held as sorted primitive {@code int[]} document ids
+ */
+public final class Postings {
+
+    private Postings() {
+    }
+
+    /**
+     * Return the ids in ascending order without duplicates. Arrays that are
+     * already strictly ascending are returned as they are.
+     */
+    public static int[] sortedUnique(int[] docIds) {
+        if (docIds == null) {
+            return new int[0];
+        }
+        boolean sorted = true;
+        for (int i = 1; i < docIds.length; i++) {
+            if (docIds[i - 1] >= docIds[i]) {
+                sorted = false;
+                break;
+            }
+        }
+        if (sorted) {
+            return docIds;
+        }
+
+        int[] copy = docIds.clone();
+        Arrays.sort(copy);
+        int size = 0;
+        for (int i = 0; i < copy.length; i++) {
+            if (size == 0 || copy[size - 1] != copy[i]) {
+                copy[size++] = copy[i];
+            }
+        }
+        return size == copy.length ? copy : Arrays.copyOf(copy, size);
+    }
+
+    /**
+     * Intersect sorted postings, starting from the shortest list and galloping
+     * through the longer ones so a rare term bounds the work done
+     */
+    public static int[] intersect(List<int[]> postings) {
+        if (postings.isEmpty()) {
+            return new int[0];
+        }
+        int[][] lists = postings.toArray(new int[0][]);
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists[0].clone();
+        int size = result.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            int[] list = lists[l];
+            int position = 0;
+            int kept = 0;
+            for (int i = 0; i < size && position < list.length; i++) {
+                int docId = result[i];
+                position = gallop(list, position, docId);
+                if (position < list.length && list[position] == docId) {
+                    result[kept++] = docId;
+                    position++;
+                }
+            }
+            size = kept;
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Index of the first element at or after {@code from} that is not less than
+     * {@code target}, or {@code list.length} if there is none. Probes at
+     * exponentially growing distances, then binary searches the last step.
+     */
+    public static int gallop(int[] list, int from, int target) {
+        if (from >= list.length || list[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + step;
+        while (high < list.length && list[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        if (high >= list.length) {
+            high = list.length;
+        }
+
+        // list[low] < target and (high == length or list[high] >= target)
+        low++;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
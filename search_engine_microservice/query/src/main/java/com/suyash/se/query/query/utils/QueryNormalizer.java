@@ -0,0 +1,69 @@
+package com.suyash.se.query.query.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a query to the terms that affect its ranking, so that queries which
+ * only differ in case, spacing, punctuation, stop words, repeated terms or
+ * term order share one cache entry
+ */
+public final class QueryNormalizer {
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
+    public static final Set<String> STOP_WORDS = Set.of("the", "and", "is", "in", "to", "of", "a", "for");
+
+    private QueryNormalizer() {
+    }
+
+    /**
+     * Lowercased word tokens in query order
+     */
+    public static String[] tokenize(String text) {
+        return WORD_PATTERN.matcher(text.toLowerCase()).results()
+                .map(match -> match.group())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Lowercased tokens joined by single spaces, the form in which queries are
+     * offered back as suggestions
+     */
+    public static String displayForm(String query) {
+        return String.join(" ", tokenize(query));
+    }
+
+    /**
+     * Display form of a partially typed query. A trailing separator is kept as
+     * a single space, so "java " completes only queries with a next word.
+     */
+    public static String displayPrefix(String prefix) {
+        String display = displayForm(prefix);
+        if (display.isEmpty() || prefix.isEmpty()) {
+            return display;
+        }
+        char last = prefix.charAt(prefix.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' ? display : display + " ";
+    }
+
+    /**
+     * Distinct non-stop-word terms in sorted order; ranking treats the query as a bag of words
+     */
+    public static List<String> terms(String query) {
+        return Arrays.stream(tokenize(query))
+                .filter(term -> !STOP_WORDS.contains(term))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    public static String canonicalKey(List<String> terms) {
+        return String.join(" ", terms);
+    }
+
+    public static String canonicalKey(String query) {
+        return canonicalKey(terms(query));
+    }
+}
@@ -0,0 +1,139 @@
+package com.suyash.se.query.query.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the k best scoring documents seen so far in a fixed-size min-heap over
+ * parallel primitive arrays, so selecting the top k of n candidates costs
+ * O(n log k) without boxing. Ties are broken in favour of the smaller docId.
+ */
+public final class TopKCollector {
+
+    private final int capacity;
+    private final int[] docIds;
+    private final double[] scores;
+    private int size;
+    private boolean sorted;
+
+    public TopKCollector(int k) {
+        this.capacity = Math.max(k, 0);
+        this.docIds = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    public void collect(int docId, double score) {
+        if (size < capacity) {
+            docIds[size] = docId;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (capacity > 0 && worse(docIds[0], scores[0], docId, score)) {
+            docIds[0] = docId;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Score a new document has to beat to enter the heap
+     */
+    public double threshold() {
+        return size < capacity || capacity == 0 ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Document ids ordered from best to worst score. The collector must not be
+     * used to collect further documents afterwards.
+     */
+    public List<Integer> toSortedList() {
+        sortDescending();
+        List<Integer> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(docIds[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Same order as {@link #toSortedList()}, as a primitive array
+     */
+    public int[] sortedDocIds() {
+        sortDescending();
+        int[] results = new int[size];
+        System.arraycopy(docIds, 0, results, 0, size);
+        return results;
+    }
+
+    /**
+     * Scores aligned with {@link #toSortedList()}
+     */
+    public double[] sortedScores() {
+        sortDescending();
+        double[] results = new double[size];
+        System.arraycopy(scores, 0, results, 0, size);
+        return results;
+    }
+
+    private void sortDescending() {
+        if (sorted) {
+            return;
+        }
+        // Heap sort: repeatedly move the current minimum behind the heap
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        sorted = true;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(docIds[index], scores[index], docIds[parent], scores[parent])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int heapSize) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < heapSize && worse(docIds[right], scores[right], docIds[left], scores[left])
+                    ? right
+                    : left;
+            if (!worse(docIds[smallest], scores[smallest], docIds[index], scores[index])) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static boolean worse(int docIdA, double scoreA, int docIdB, double scoreB) {
+        int compare = Double.compare(scoreA, scoreB);
+        return compare < 0 || (compare == 0 && docIdA > docIdB);
+    }
+
+    private void swap(int i, int j) {
+        int docId = docIds[i];
+        docIds[i] = docIds[j];
+        docIds[j] = docId;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
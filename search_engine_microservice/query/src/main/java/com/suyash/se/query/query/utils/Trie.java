@@ -1,44 +1,389 @@
 package com.suyash.se.query.query.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
 
 import org.springframework.stereotype.Component;
 
+/**
+ * Radix trie over queries for autocomplete. Every node caches the ids of the
+ * {@link #TOP_K} heaviest words below it, so a lookup walks the prefix and
+ * reads that list without visiting the subtree. Nodes live in parallel int
+ * arrays and edge labels in a shared char pool; splitting an edge reuses the
+ * pool range of the original label.
+ *
+ * <p>Inserts add to a word's weight and take the write lock; lookups take an
+ * optimistic read and fall back to the read lock when an insert overlapped.
+ * Words seen on the request path are {@link #record recorded} in a concurrent
+ * pending map instead and applied in one batch by {@link #publish}, so
+ * searches never wait for the write lock.
+ *
+ * <p>Memory is bounded by {@code maxWords}: when the trie grows past it, all
+ * weights are halved, words that reach zero are dropped and the trie is
+ * rebuilt, which also lets it follow changing traffic.
+ */
 @Component
 public class Trie {
-    private final TrieNode root = new TrieNode();
+
+    public static final int TOP_K = 10;
+    private static final int DEFAULT_MAX_WORDS = 100_000;
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private final StampedLock lock = new StampedLock();
+    private final int maxWords;
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Node arrays, indexed by node id
+    private int[] labelStart = new int[64];
+    private int[] labelLength = new int[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    private int[] wordId = new int[64];
+    private int[] topCount = new int[64];
+    private int[] top = new int[64 * TOP_K];
+    private int nodeCount;
+
+    private char[] labels = new char[256];
+    private int labelsUsed;
+
+    // Word arrays, indexed by word id
+    private String[] words = new String[64];
+    private long[] weights = new long[64];
+    private int wordCount;
+
+    public Trie() {
+        this(DEFAULT_MAX_WORDS);
+    }
+
+    public Trie(int maxWords) {
+        this.maxWords = maxWords;
+        nodeCount = 1;
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+        wordId[ROOT] = NONE;
+    }
 
     public void insert(String word) {
-        TrieNode current = root;
-        for (char c : word.toCharArray()) {
-            current = current.children.computeIfAbsent(c, k -> new TrieNode());
+        insert(word, 1);
+    }
+
+    /**
+     * Add {@code weight} to the word's weight, inserting it if it is new
+     */
+    public void insert(String word, long weight) {
+        if (word == null || word.isEmpty() || weight <= 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            add(word, weight);
+            if (wordCount > maxWords) {
+                prune();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Count the word once; it becomes visible on the next {@link #publish}
+     */
+    public void record(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        LongAdder count = pending.get(word);
+        if (count == null) {
+            if (pending.size() >= maxWords) {
+                return; // Publishing fell behind; drop the sample rather than grow
+            }
+            count = pending.computeIfAbsent(word, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Apply the recorded words under a single write lock
+     */
+    public void publish() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (Iterator<Map.Entry<String, LongAdder>> it = pending.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String, LongAdder> entry = it.next();
+                it.remove();
+                add(entry.getKey(), entry.getValue().sum());
+            }
+            if (wordCount > maxWords) {
+                prune();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        current.isEndOfWord = true;
     }
 
     public List<String> getSuggestions(String prefix) {
-        TrieNode node = root;
-        for (char c : prefix.toCharArray()) {
-            node = node.children.get(c);
-            if (node == null) {
+        return getSuggestions(prefix, TOP_K);
+    }
+
+    /**
+     * The heaviest words starting with {@code prefix}, heaviest first
+     */
+    public List<String> getSuggestions(String prefix, int limit) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                List<String> suggestions = lookup(prefix, limit);
+                if (lock.validate(stamp)) {
+                    return suggestions;
+                }
+            } catch (RuntimeException e) {
+                // Arrays were replaced mid-read; retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return lookup(prefix, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return wordCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<String> lookup(String prefix, int limit) {
+        int[] top = this.top;
+        int[] topCount = this.topCount;
+        String[] words = this.words;
+        int node = ROOT;
+        int position = 0;
+        while (position < prefix.length()) {
+            int child = findChild(node, prefix.charAt(position));
+            if (child == NONE) {
                 return Collections.emptyList();
             }
+            int common = commonLength(child, prefix, position);
+            // common is 0 only when an optimistic read saw a half-written node
+            if (common == 0 || common < labelLength[child] && position + common < prefix.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            position += common;
+        }
+
+        int count = Math.min(topCount[node], limit);
+        List<String> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            suggestions.add(words[top[node * TOP_K + i]]);
         }
-        return collectWords(node, prefix);
+        return suggestions;
     }
 
-    private List<String> collectWords(TrieNode node, String prefix) {
-        List<String> words = new ArrayList<>();
-        if (node.isEndOfWord) {
-            words.add(prefix);
+    private void add(String word, long weight) {
+        int[] path = new int[word.length() + 1];
+        int depth = 0;
+        int node = ROOT;
+        int position = 0;
+        path[depth++] = node;
+
+        while (position < word.length()) {
+            int child = findChild(node, word.charAt(position));
+            if (child == NONE) {
+                child = newNode(word, position, word.length() - position);
+                addChild(node, child);
+                node = child;
+                position = word.length();
+            } else {
+                int common = commonLength(child, word, position);
+                if (common < labelLength[child]) {
+                    split(child, common);
+                }
+                node = child;
+                position += common;
+            }
+            path[depth++] = node;
+        }
+
+        int id = wordId[node];
+        if (id == NONE) {
+            id = newWord(word);
+            wordId[node] = id;
         }
-        for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
-            words.addAll(collectWords(entry.getValue(), prefix + entry.getKey()));
+        weights[id] += weight;
+        for (int i = 0; i < depth; i++) {
+            offer(path[i], id);
         }
-        return words;
     }
-}
 
+    /**
+     * Halve all weights until at most {@code maxWords} words are left and
+     * rebuild the arrays from the survivors. Called with the write lock held;
+     * optimistic readers that overlap fail validation and retry.
+     */
+    private void prune() {
+        String[] survivors = Arrays.copyOf(words, wordCount);
+        long[] survivorWeights = Arrays.copyOf(weights, wordCount);
+        int survivorCount = wordCount;
+        while (survivorCount > maxWords) {
+            int kept = 0;
+            for (int i = 0; i < survivorCount; i++) {
+                long halved = survivorWeights[i] >>> 1;
+                if (halved > 0) {
+                    survivors[kept] = survivors[i];
+                    survivorWeights[kept++] = halved;
+                }
+            }
+            survivorCount = kept;
+        }
+
+        Trie rebuilt = new Trie(maxWords);
+        for (int i = 0; i < survivorCount; i++) {
+            rebuilt.add(survivors[i], survivorWeights[i]);
+        }
+        labelStart = rebuilt.labelStart;
+        labelLength = rebuilt.labelLength;
+        firstChild = rebuilt.firstChild;
+        nextSibling = rebuilt.nextSibling;
+        wordId = rebuilt.wordId;
+        topCount = rebuilt.topCount;
+        top = rebuilt.top;
+        nodeCount = rebuilt.nodeCount;
+        labels = rebuilt.labels;
+        labelsUsed = rebuilt.labelsUsed;
+        words = rebuilt.words;
+        weights = rebuilt.weights;
+        wordCount = rebuilt.wordCount;
+    }
+
+    private int findChild(int node, char c) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (labels[labelStart[child]] == c) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    private int commonLength(int node, String text, int position) {
+        int start = labelStart[node];
+        int max = Math.min(labelLength[node], text.length() - position);
+        int i = 0;
+        while (i < max && labels[start + i] == text.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Cut the node's label after {@code length} chars. The node keeps its place
+     * under its parent with the shorter label and gets a single child holding
+     * the rest of the label, its word and its children.
+     */
+    private void split(int node, int length) {
+        int suffix = allocateNode();
+        labelStart[suffix] = labelStart[node] + length;
+        labelLength[suffix] = labelLength[node] - length;
+        firstChild[suffix] = firstChild[node];
+        nextSibling[suffix] = NONE;
+        wordId[suffix] = wordId[node];
+        topCount[suffix] = topCount[node];
+        System.arraycopy(top, node * TOP_K, top, suffix * TOP_K, TOP_K);
+
+        labelLength[node] = length;
+        firstChild[node] = suffix;
+        wordId[node] = NONE;
+    }
+
+    private void addChild(int parent, int child) {
+        nextSibling[child] = firstChild[parent];
+        firstChild[parent] = child;
+    }
+
+    private int newNode(String word, int from, int length) {
+        int node = allocateNode();
+        if (labelsUsed + length > labels.length) {
+            labels = Arrays.copyOf(labels, Math.max(labels.length * 2, labelsUsed + length));
+        }
+        word.getChars(from, from + length, labels, labelsUsed);
+        labelStart[node] = labelsUsed;
+        labelLength[node] = length;
+        labelsUsed += length;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        wordId[node] = NONE;
+        topCount[node] = 0;
+        return node;
+    }
+
+    private int allocateNode() {
+        if (nodeCount == labelStart.length) {
+            int capacity = nodeCount * 2;
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelLength = Arrays.copyOf(labelLength, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            wordId = Arrays.copyOf(wordId, capacity);
+            topCount = Arrays.copyOf(topCount, capacity);
+            top = Arrays.copyOf(top, capacity * TOP_K);
+        }
+        return nodeCount++;
+    }
+
+    private int newWord(String word) {
+        if (wordCount == words.length) {
+            words = Arrays.copyOf(words, wordCount * 2);
+            weights = Arrays.copyOf(weights, wordCount * 2);
+        }
+        words[wordCount] = word;
+        return wordCount++;
+    }
+
+    /**
+     * Move the word into the node's top list after its weight grew. Weights
+     * only increase, so the word can only move towards the front.
+     */
+    private void offer(int node, int id) {
+        int base = node * TOP_K;
+        int count = topCount[node];
+        int slot = NONE;
+        for (int i = 0; i < count; i++) {
+            if (top[base + i] == id) {
+                slot = i;
+                break;
+            }
+        }
+        if (slot == NONE) {
+            if (count < TOP_K) {
+                slot = count;
+                topCount[node] = count + 1;
+            } else if (weights[top[base + count - 1]] < weights[id]) {
+                slot = count - 1;
+            } else {
+                return;
+            }
+            top[base + slot] = id;
+        }
+        while (slot > 0 && weights[top[base + slot - 1]] < weights[id]) {
+            top[base + slot] = top[base + slot - 1];
+            top[base + slot - 1] = id;
+            slot--;
+        }
+    }
+}
@@ -1,9 +0,0 @@
-package com.suyash.se.query.query.utils;
-
-import java.util.HashMap;
-import java.util.Map;
-
-public class TrieNode {
-    Map<Character, TrieNode> children = new HashMap<>();
-    boolean isEndOfWord = false;
-}
\ No newline at end of file
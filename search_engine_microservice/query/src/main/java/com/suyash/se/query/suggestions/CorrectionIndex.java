@@ -0,0 +1,160 @@
+package com.suyash.se.query.suggestions;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.suyash.se.query.query.utils.QueryNormalizer;
+import com.suyash.se.query.suggestions.utils.BKTree;
+import com.suyash.se.query.warmup.QueryPopularityService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Spelling correction index over queries that returned results and the terms
+ * they contain. Whole queries are matched first within a small radius;
+ * otherwise each unknown term is replaced by its closest known term.
+ *
+ * <p>Both trees stop growing at their configured size and are rebuilt
+ * periodically from the most popular queries, so queries that fell out of use
+ * are dropped and new ones get room again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CorrectionIndex {
+
+    // A wide radius over whole queries visits most of the tree; longer typos are left to the per-term path
+    private static final int MAX_QUERY_DISTANCE = 2;
+    private static final int MAX_TERM_DISTANCE = 3;
+
+    private final QueryPopularityService popularityService;
+
+    private volatile Trees trees = new Trees();
+
+    @Value("${search.suggestions.correction.max-queries:50000}")
+    private int maxQueries;
+
+    @Value("${search.suggestions.correction.max-terms:100000}")
+    private int maxTerms;
+
+    @Value("${search.suggestions.correction.window-hours:24}")
+    private int windowHours;
+
+    public void addQuery(String query) {
+        trees.add(query, maxQueries, maxTerms);
+    }
+
+    /**
+     * Replace the index with the most popular queries with results. Queries
+     * added while the new trees are built may be lost until the next rebuild.
+     */
+    @Scheduled(fixedDelayString = "${search.suggestions.correction.rebuild-interval-ms:3600000}",
+            initialDelayString = "${search.suggestions.correction.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        try {
+            List<String> popular = popularityService.topSuggestions(maxQueries, windowHours);
+            if (popular.isEmpty()) {
+                // Nothing counted, e.g. Redis is unavailable; keep the current trees
+                return;
+            }
+            Trees rebuilt = new Trees();
+            popular.forEach(query -> rebuilt.add(query, maxQueries, maxTerms));
+            trees = rebuilt;
+            log.info("Rebuilt correction index with {} queries and {} terms", rebuilt.queries.size(),
+                    rebuilt.terms.size());
+        } catch (Exception e) {
+            log.warn("Error rebuilding correction index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Known queries close to the given one, closest first
+     */
+    public List<String> corrections(String query, int limit) {
+        String[] tokens = QueryNormalizer.tokenize(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        String normalized = String.join(" ", tokens);
+        Trees trees = this.trees;
+
+        Set<String> corrections = new LinkedHashSet<>();
+        for (BKTree.Match match : trees.queries.search(normalized, tolerance(normalized, MAX_QUERY_DISTANCE))) {
+            if (match.getDistance() > 0) {
+                corrections.add(match.getWord());
+            }
+            if (corrections.size() >= limit) {
+                return new ArrayList<>(corrections);
+            }
+        }
+
+        // Correct term by term when no whole query is close enough
+        if (corrections.isEmpty() && tokens.length > 1) {
+            String corrected = correctTerms(trees.terms, tokens);
+            if (corrected != null) {
+                corrections.add(corrected);
+            }
+        } else if (corrections.isEmpty()) {
+            for (BKTree.Match match : trees.terms.search(normalized, tolerance(normalized, MAX_TERM_DISTANCE))) {
+                if (match.getDistance() > 0 && corrections.size() < limit) {
+                    corrections.add(match.getWord());
+                }
+            }
+        }
+        return new ArrayList<>(corrections);
+    }
+
+    public int size() {
+        return trees.queries.size();
+    }
+
+    private static String correctTerms(BKTree terms, String[] tokens) {
+        boolean changed = false;
+        String[] corrected = tokens.clone();
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (QueryNormalizer.STOP_WORDS.contains(token) || terms.contains(token)) {
+                continue;
+            }
+            List<BKTree.Match> matches = terms.search(token, tolerance(token, MAX_TERM_DISTANCE));
+            if (!matches.isEmpty()) {
+                corrected[i] = matches.get(0).getWord();
+                changed = true;
+            }
+        }
+        return changed ? String.join(" ", corrected) : null;
+    }
+
+    private static int tolerance(String text, int max) {
+        // Roughly one edit per three characters, up to the cap
+        return Math.min(text.length() / 3, max);
+    }
+
+    private static final class Trees {
+        final BKTree queries = new BKTree();
+        final BKTree terms = new BKTree();
+
+        void add(String query, int maxQueries, int maxTerms) {
+            String[] tokens = QueryNormalizer.tokenize(query);
+            if (tokens.length == 0) {
+                return;
+            }
+            // Sizes are read without a lock, so a full tree may overshoot by a few concurrent inserts
+            if (queries.size() < maxQueries) {
+                queries.add(QueryNormalizer.displayForm(query));
+            }
+            for (String token : tokens) {
+                if (terms.size() < maxTerms && !QueryNormalizer.STOP_WORDS.contains(token)) {
+                    terms.add(token);
+                }
+            }
+        }
+    }
+}
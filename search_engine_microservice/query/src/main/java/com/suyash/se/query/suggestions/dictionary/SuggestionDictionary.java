@@ -0,0 +1,414 @@
+package com.suyash.se.query.suggestions.dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Immutable query to weight dictionary stored in a memory-mapped file, so the
+ * suggestions live in the page cache instead of the heap and opening a
+ * dictionary costs the same whatever its size.
+ *
+ * <p>Queries are sorted by their UTF-8 bytes and front coded in blocks of
+ * {@link #BLOCK_SIZE}: each entry stores the length of the prefix it shares
+ * with the previous entry, the remaining bytes and its weight as varints.
+ * Lookups binary search the first keys of the blocks. Short prefixes would
+ * match a large part of the dictionary, so the {@link #TOP_K} heaviest
+ * queries for every prefix of up to {@link #PREFIX_TABLE_DEPTH} bytes are
+ * precomputed into a second sorted table.
+ *
+ * <p>Layout: blocks, block offsets, prefix entries (varint length, bytes,
+ * varint count, int ordinals), prefix offsets, then a fixed-size footer with
+ * the magic, version, counts and section offsets.
+ */
+public final class SuggestionDictionary {
+
+    public static final int TOP_K = 10;
+    static final int BLOCK_SIZE = 16;
+    static final int PREFIX_TABLE_DEPTH = 3;
+
+    private static final int MAGIC = 0x53474431; // "SGD1"
+    private static final byte VERSION = 1;
+    private static final int FOOTER_SIZE = 4 + 1 + 4 * 5;
+
+    public static final SuggestionDictionary EMPTY = new SuggestionDictionary();
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int blockCount;
+    private final int blockOffsets;
+    private final int prefixCount;
+    private final int prefixOffsets;
+
+    private SuggestionDictionary() {
+        this.buffer = ByteBuffer.allocate(0);
+        this.entryCount = 0;
+        this.blockCount = 0;
+        this.blockOffsets = 0;
+        this.prefixCount = 0;
+        this.prefixOffsets = 0;
+    }
+
+    private SuggestionDictionary(ByteBuffer buffer) throws IOException {
+        int footer = buffer.limit() - FOOTER_SIZE;
+        if (footer < 0 || buffer.getInt(footer) != MAGIC || buffer.get(footer + 4) != VERSION) {
+            throw new IOException("Not a suggestion dictionary");
+        }
+        this.buffer = buffer;
+        this.entryCount = buffer.getInt(footer + 5);
+        this.blockCount = buffer.getInt(footer + 9);
+        this.blockOffsets = buffer.getInt(footer + 13);
+        this.prefixCount = buffer.getInt(footer + 17);
+        this.prefixOffsets = buffer.getInt(footer + 21);
+    }
+
+    /**
+     * Map the dictionary file; only the footer is read up front
+     */
+    public static SuggestionDictionary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SuggestionDictionary(buffer);
+        }
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Weight of the query, or 0 if it is not in the dictionary
+     */
+    public long weight(String query) {
+        byte[] key = query.getBytes(StandardCharsets.UTF_8);
+        int block = floorBlock(key);
+        if (block < 0) {
+            return 0;
+        }
+        Cursor cursor = new Cursor(block);
+        for (int i = 0; i < BLOCK_SIZE && cursor.next(); i++) {
+            int comparison = cursor.compareTo(key);
+            if (comparison == 0) {
+                return cursor.weight;
+            }
+            if (comparison > 0) {
+                break;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The heaviest queries starting with {@code prefix}, heaviest first
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (entryCount == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        // The prefix table only holds the top TOP_K, larger requests scan the blocks
+        return key.length <= PREFIX_TABLE_DEPTH && limit <= TOP_K ? fromPrefixTable(key, limit) : scan(key, limit);
+    }
+
+    private List<String> fromPrefixTable(byte[] prefix, int limit) {
+        int low = 0;
+        int high = prefixCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = buffer.getInt(prefixOffsets + middle * 4);
+            int[] cursor = { position };
+            int length = (int) readVarLong(buffer, cursor);
+            int comparison = compare(buffer, cursor[0], length, prefix);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                cursor[0] += length;
+                int count = Math.min((int) readVarLong(buffer, cursor), limit);
+                List<String> suggestions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    suggestions.add(entry(buffer.getInt(cursor[0] + i * 4)));
+                }
+                return suggestions;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private List<String> scan(byte[] prefix, int limit) {
+        int block = Math.max(floorBlock(prefix), 0);
+        PriorityQueue<Candidate> heaviest = new PriorityQueue<>(limit + 1);
+        Cursor cursor = new Cursor(block);
+        while (cursor.next()) {
+            if (cursor.startsWith(prefix)) {
+                heaviest.add(new Candidate(cursor.key(), cursor.weight));
+                if (heaviest.size() > limit) {
+                    heaviest.poll();
+                }
+            } else if (cursor.compareTo(prefix) > 0) {
+                break;
+            }
+        }
+        List<String> suggestions = new ArrayList<>(heaviest.size());
+        while (!heaviest.isEmpty()) {
+            suggestions.add(heaviest.poll().query);
+        }
+        Collections.reverse(suggestions);
+        return suggestions;
+    }
+
+    private String entry(int ordinal) {
+        Cursor cursor = new Cursor(ordinal / BLOCK_SIZE);
+        for (int i = ordinal % BLOCK_SIZE; i >= 0; i--) {
+            cursor.next();
+        }
+        return cursor.key();
+    }
+
+    /**
+     * Last block whose first key is at most {@code key}, or -1
+     */
+    private int floorBlock(byte[] key) {
+        int low = 0;
+        int high = blockCount - 1;
+        int floor = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int[] cursor = { buffer.getInt(blockOffsets + middle * 4) };
+            readVarLong(buffer, cursor); // shared prefix, always 0 at a block start
+            int length = (int) readVarLong(buffer, cursor);
+            if (compare(buffer, cursor[0], length, key) <= 0) {
+                floor = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * Sequential decoder over the front-coded entries, starting at a block
+     */
+    private final class Cursor {
+        private final int[] position;
+        private int ordinal;
+        private byte[] key = new byte[64];
+        private int length;
+        private long weight;
+
+        Cursor(int block) {
+            this.position = new int[] { block < blockCount ? buffer.getInt(blockOffsets + block * 4) : blockOffsets };
+            this.ordinal = block * BLOCK_SIZE;
+        }
+
+        boolean next() {
+            if (ordinal >= entryCount) {
+                return false;
+            }
+            int shared = (int) readVarLong(buffer, position);
+            int suffix = (int) readVarLong(buffer, position);
+            if (key.length < shared + suffix) {
+                key = Arrays.copyOf(key, Math.max(key.length * 2, shared + suffix));
+            }
+            buffer.get(position[0], key, shared, suffix);
+            position[0] += suffix;
+            length = shared + suffix;
+            weight = readVarLong(buffer, position);
+            ordinal++;
+            return true;
+        }
+
+        int compareTo(byte[] other) {
+            return Arrays.compareUnsigned(key, 0, length, other, 0, other.length);
+        }
+
+        boolean startsWith(byte[] prefix) {
+            return length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+        }
+
+        String key() {
+            return new String(key, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        final String query;
+        final long weight;
+
+        Candidate(String query, long weight) {
+            this.query = query;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int comparison = Long.compare(weight, other.weight);
+            return comparison != 0 ? comparison : other.query.compareTo(query);
+        }
+    }
+
+    private static int compare(ByteBuffer buffer, int position, int length, byte[] key) {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(position + i) & 0xff, key[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static long readVarLong(ByteBuffer buffer, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get(position[0]++);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in suggestion dictionary");
+    }
+
+    /**
+     * Write a dictionary to a temporary file next to {@code path} and move it
+     * into place, so readers never map a partially written file
+     *
+     * @return number of entries written
+     */
+    public static int write(Map<String, Long> weights, Path path) throws IOException {
+        List<Map.Entry<byte[], Long>> entries = new ArrayList<>(weights.size());
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            if (entry.getKey() != null && !entry.getKey().isEmpty() && entry.getValue() != null && entry.getValue() > 0) {
+                entries.add(Map.entry(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()));
+            }
+        }
+        entries.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temporary, StandardOpenOption.TRUNCATE_EXISTING);
+                    CountingOutput out = new CountingOutput(new BufferedOutputStream(file, 1 << 16))) {
+                writeSections(entries, out);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return entries.size();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeSections(List<Map.Entry<byte[], Long>> entries, CountingOutput out)
+            throws IOException {
+        int count = entries.size();
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] blockStarts = new int[blockCount];
+        // Prefix bytes as ISO-8859-1 strings keep one char per byte and sort like unsigned bytes
+        Map<String, PriorityQueue<long[]>> prefixTops = new HashMap<>();
+
+        byte[] previous = new byte[0];
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            byte[] key = entries.get(ordinal).getKey();
+            long weight = entries.get(ordinal).getValue();
+            int shared = 0;
+            if (ordinal % BLOCK_SIZE == 0) {
+                blockStarts[ordinal / BLOCK_SIZE] = out.written();
+            } else {
+                int max = Math.min(previous.length, key.length);
+                while (shared < max && previous[shared] == key[shared]) {
+                    shared++;
+                }
+            }
+            out.writeVarLong(shared);
+            out.writeVarLong(key.length - shared);
+            out.write(key, shared, key.length - shared);
+            out.writeVarLong(weight);
+            previous = key;
+
+            for (int depth = 0; depth <= Math.min(PREFIX_TABLE_DEPTH, key.length); depth++) {
+                PriorityQueue<long[]> top = prefixTops.computeIfAbsent(
+                        new String(key, 0, depth, StandardCharsets.ISO_8859_1),
+                        prefix -> new PriorityQueue<>(TOP_K + 1, (a, b) -> Long.compare(a[0], b[0])));
+                top.add(new long[] { weight, ordinal });
+                if (top.size() > TOP_K) {
+                    top.poll();
+                }
+            }
+        }
+
+        int blockOffsets = out.written();
+        for (int start : blockStarts) {
+            out.writeInt(start);
+        }
+
+        TreeMap<String, PriorityQueue<long[]>> sortedPrefixes = new TreeMap<>(prefixTops);
+        int[] prefixStarts = new int[sortedPrefixes.size()];
+        int index = 0;
+        for (Map.Entry<String, PriorityQueue<long[]>> prefix : sortedPrefixes.entrySet()) {
+            prefixStarts[index++] = out.written();
+            byte[] bytes = prefix.getKey().getBytes(StandardCharsets.ISO_8859_1);
+            List<long[]> top = new ArrayList<>(prefix.getValue());
+            // Heaviest first; equal weights in dictionary order
+            top.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(a[1], b[1]));
+            out.writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+            out.writeVarLong(top.size());
+            for (long[] entry : top) {
+                out.writeInt((int) entry[1]);
+            }
+        }
+
+        int prefixOffsets = out.written();
+        for (int start : prefixStarts) {
+            out.writeInt(start);
+        }
+
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(count);
+        out.writeInt(blockCount);
+        out.writeInt(blockOffsets);
+        out.writeInt(prefixStarts.length);
+        out.writeInt(prefixOffsets);
+    }
+
+    private static final class CountingOutput extends DataOutputStream {
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        int written() {
+            return written;
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.suyash.se.query.suggestions.dictionary;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.suyash.se.query.warmup.QueryPopularityService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves autocomplete from the memory-mapped {@link SuggestionDictionary}.
+ * The dictionary is rebuilt in the background from the counted queries and
+ * swapped in by replacing a single reference, so lookups never block on a
+ * rebuild. A replaced mapping is released once it is garbage collected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionDictionaryService {
+
+    private final QueryPopularityService popularityService;
+
+    private volatile SuggestionDictionary dictionary = SuggestionDictionary.EMPTY;
+
+    @Value("${search.suggestions.dictionary.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.suggestions.dictionary.path:data/suggestions.dict}")
+    private Path path;
+
+    @Value("${search.suggestions.dictionary.window-hours:168}")
+    private int windowHours;
+
+    /**
+     * Map the dictionary left by the previous build; this does not read the entries
+     */
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (path.toFile().isFile()) {
+                dictionary = SuggestionDictionary.open(path);
+                log.info("Opened suggestion dictionary {} with {} entries", path, dictionary.size());
+            }
+        } catch (Exception e) {
+            log.warn("Error opening suggestion dictionary {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggestions.dictionary.rebuild-interval-ms:900000}",
+            initialDelayString = "${search.suggestions.dictionary.initial-delay-ms:60000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Map<String, Long> counts = popularityService.suggestionCounts(windowHours);
+            if (counts.isEmpty() && dictionary.size() > 0) {
+                // Nothing counted yet, e.g. Redis was flushed; keep serving the previous build
+                return;
+            }
+            int written = SuggestionDictionary.write(counts, path);
+            dictionary = SuggestionDictionary.open(path);
+            log.info("Rebuilt suggestion dictionary with {} entries in {} ms", written,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Error rebuilding suggestion dictionary {}: {}", path, e.getMessage());
+        }
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        try {
+            return dictionary.complete(prefix, limit);
+        } catch (RuntimeException e) {
+            log.warn("Error reading suggestion dictionary: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    public boolean isAvailable() {
+        return dictionary.size() > 0;
+    }
+}
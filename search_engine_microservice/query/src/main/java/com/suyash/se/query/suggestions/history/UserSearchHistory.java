@@ -0,0 +1,88 @@
+package com.suyash.se.query.suggestions.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One user's most recent queries in a fixed-size ring buffer, oldest entries
+ * overwritten first. A sorted map from each query to its occurrences in the
+ * buffer answers prefix lookups with a range scan instead of a pass over the
+ * whole history.
+ */
+public class UserSearchHistory {
+
+    private final String[] queries;
+    private final TreeMap<String, Integer> occurrences = new TreeMap<>();
+    private int next;
+    private int size;
+
+    public UserSearchHistory(int capacity) {
+        this.queries = new String[capacity];
+    }
+
+    public synchronized void add(String query) {
+        String overwritten = queries[next];
+        if (overwritten != null) {
+            occurrences.computeIfPresent(overwritten, (q, count) -> count > 1 ? count - 1 : null);
+        }
+        queries[next] = query;
+        next = (next + 1) % queries.length;
+        size = Math.min(size + 1, queries.length);
+        occurrences.merge(query, 1, Integer::sum);
+    }
+
+    /**
+     * Insert queries that happened before everything already recorded, such as
+     * a history loaded after the user's first new query; the newest entries win
+     * when the buffer overflows
+     */
+    public synchronized void addOlder(List<String> older) {
+        if (older.isEmpty()) {
+            return;
+        }
+        List<String> combined = new ArrayList<>(older.size() + size);
+        combined.addAll(older);
+        combined.addAll(queries());
+        Arrays.fill(queries, null);
+        occurrences.clear();
+        next = 0;
+        size = 0;
+        for (String query : combined.subList(Math.max(0, combined.size() - queries.length), combined.size())) {
+            add(query);
+        }
+    }
+
+    /**
+     * Distinct past queries starting with {@code prefix} and how often each occurs
+     */
+    public synchronized Map<String, Integer> startingWith(String prefix) {
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : occurrences.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            matches.put(entry.getKey(), entry.getValue());
+        }
+        return matches;
+    }
+
+    /**
+     * Queries from oldest to newest
+     */
+    public synchronized List<String> queries() {
+        List<String> ordered = new ArrayList<>(size);
+        int start = size < queries.length ? 0 : next;
+        for (int i = 0; i < size; i++) {
+            ordered.add(queries[(start + i) % queries.length]);
+        }
+        return ordered;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
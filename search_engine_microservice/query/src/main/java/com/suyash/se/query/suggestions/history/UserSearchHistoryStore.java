@@ -0,0 +1,166 @@
+package com.suyash.se.query.suggestions.history;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import com.suyash.se.query.cache.LRUCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search history per user. Histories are kept in an {@link LRUCache} that
+ * expires users after a period without searches and evicts the least
+ * valuable ones once the user limit is reached, instead of turning new users
+ * away. With Redis enabled every query is also appended to a capped list per
+ * user in the background, and a user missing locally is loaded from it, so
+ * history survives restarts and follows a user across replicas. Loading runs
+ * on the same background thread: a user's first lookup on an instance sees
+ * only what they searched there, and the stored history is merged in behind
+ * it once it arrives.
+ */
+@Service
+@Slf4j
+public class UserSearchHistoryStore {
+
+    private static final String KEY_PREFIX = "user_history:";
+
+    private final LRUCache<String, UserSearchHistory> histories;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int historySize;
+    private final Duration idleTtl;
+
+    @Value("${search.history.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    public UserSearchHistoryStore(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry,
+            @Value("${search.history.max-users:10000}") int maxUsers,
+            @Value("${search.history.size:100}") int historySize,
+            @Value("${search.history.idle-ttl:24h}") Duration idleTtl) {
+        this.redisTemplate = redisTemplate;
+        this.historySize = historySize;
+        this.idleTtl = idleTtl;
+        this.histories = new LRUCache<>(maxUsers, idleTtl, LRUCache.ExpirationPolicy.AFTER_ACCESS, meterRegistry,
+                "user-history");
+        // Spilling to Redis is best effort and must never slow down a search
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-history-spill");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void record(String userId, String query) {
+        if (userId == null || query == null || query.isBlank()) {
+            return;
+        }
+        historyOf(userId).add(query);
+        if (redisEnabled) {
+            try {
+                executor.execute(() -> spill(userId, query));
+            } catch (RejectedExecutionException e) {
+                // The local history is still complete; only the shared copy misses this query
+            }
+        }
+    }
+
+    /**
+     * The user's past queries starting with {@code prefix} and how often each was searched
+     */
+    public Map<String, Integer> startingWith(String userId, String prefix) {
+        if (userId == null || prefix == null) {
+            return Collections.emptyMap();
+        }
+        UserSearchHistory history = histories.get(userId);
+        if (history == null && redisEnabled) {
+            history = historyOf(userId);
+        }
+        return history != null ? history.startingWith(prefix) : Collections.emptyMap();
+    }
+
+    public int size() {
+        return histories.size();
+    }
+
+    private UserSearchHistory historyOf(String userId) {
+        UserSearchHistory history = histories.get(userId);
+        if (history != null) {
+            return history;
+        }
+        UserSearchHistory created = new UserSearchHistory(historySize);
+        UserSearchHistory existing = histories.putIfAbsent(userId, created);
+        if (existing != null) {
+            // Another request added the user meanwhile
+            return existing;
+        }
+        if (redisEnabled) {
+            try {
+                // Queued ahead of this request's spill, so the new query is not loaded twice
+                executor.execute(() -> created.addOlder(load(userId)));
+            } catch (RejectedExecutionException e) {
+                // Starts without the stored history, which the spilled queries still extend
+            }
+        }
+        return created;
+    }
+
+    private List<String> load(String userId) {
+        try {
+            List<Object> stored = redisTemplate.opsForList().range(KEY_PREFIX + userId, 0, historySize - 1L);
+            if (stored == null) {
+                return Collections.emptyList();
+            }
+            // Stored newest first
+            List<String> queries = new ArrayList<>(stored.size());
+            for (int i = stored.size() - 1; i >= 0; i--) {
+                queries.add(stored.get(i).toString());
+            }
+            return queries;
+        } catch (Exception e) {
+            log.warn("Error loading search history for user {}: {}", userId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private void spill(String userId, String query) {
+        String key = KEY_PREFIX + userId;
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForList().leftPush(key, query);
+                    ops.opsForList().trim(key, 0, historySize - 1L);
+                    ops.expire(key, idleTtl);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.debug("Error saving search history for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        histories.shutdown();
+    }
+}
@@ -0,0 +1,131 @@
+package com.suyash.se.query.suggestions.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Burkhard-Keller tree over edit distance. A search for words within distance
+ * d of a query only descends into children whose edge distance lies within d
+ * of the current node's distance, which skips most of the vocabulary. Inserts
+ * are lock-free, so the tree can grow while it is being searched. Each node
+ * remembers its largest edge, which bounds how far the distance to a node has
+ * to be computed before none of its children can match.
+ */
+public class BKTree {
+
+    private final AtomicReference<Node> root = new AtomicReference<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @return false if the word was already present
+     */
+    public boolean add(String word) {
+        Node created = new Node(word);
+        Node node = root.get();
+        if (node == null) {
+            if (root.compareAndSet(null, created)) {
+                size.incrementAndGet();
+                return true;
+            }
+            node = root.get();
+        }
+
+        while (true) {
+            int distance = EditDistance.calculate(word, node.word);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.children.putIfAbsent(distance, created);
+            if (child == null) {
+                node.maxEdge.accumulateAndGet(distance, Math::max);
+                size.incrementAndGet();
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Words within {@code maxDistance} of the query, closest first
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        Node start = root.get();
+        if (start == null) {
+            return matches;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int maxEdge = node.maxEdge.get();
+            // Beyond maxDistance + maxEdge neither this node nor any child can match
+            int distance = EditDistance.bounded(query, node.word, maxDistance + maxEdge);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.word, distance));
+            }
+            // Triangle inequality: only children at edge distance within maxDistance can match
+            int lastEdge = Math.min(distance + maxDistance, maxEdge);
+            for (int edge = Math.max(1, distance - maxDistance); edge <= lastEdge; edge++) {
+                Node child = node.children.get(edge);
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::getDistance).thenComparing(Match::getWord));
+        return matches;
+    }
+
+    public boolean contains(String word) {
+        Node node = root.get();
+        while (node != null) {
+            int distance = EditDistance.calculate(word, node.word);
+            if (distance == 0) {
+                return true;
+            }
+            node = node.children.get(distance);
+        }
+        return false;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public static final class Match {
+        private final String word;
+        private final int distance;
+
+        Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final class Node {
+        final String word;
+        final ConcurrentMap<Integer, Node> children = new ConcurrentHashMap<>(4);
+        final AtomicInteger maxEdge = new AtomicInteger();
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -1,36 +1,211 @@
 package com.suyash.se.query.suggestions.utils;
 
-import org.springframework.stereotype.Component;
-
+/**
+ * Edit distance kernels. Callers that only need to know whether two strings
+ * are within a threshold should use {@link #bounded}, which stops as soon as
+ * the threshold can no longer be met and allocates nothing per call.
+ *
+ * <p>When the shorter string fits in 64 characters the distance is computed
+ * with Myers' bit-vector algorithm in Hyyro's formulation, one column per
+ * character of the longer string. Longer strings fall back to a DP restricted
+ * to the diagonal band of width {@code 2 * max + 1} (Ukkonen). Both support
+ * adjacent transpositions (optimal string alignment distance).
+ */
 public class EditDistance {
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * Levenshtein distance between two strings
+     */
     public static int calculate(String s1, String s2) {
-        int m = s1.length();
-        int n = s2.length();
+        return bounded(s1, s2, Math.max(s1.length(), s2.length()), false);
+    }
+
+    /**
+     * Levenshtein distance if it is at most {@code max}, otherwise {@code max + 1}
+     */
+    public static int bounded(CharSequence s1, CharSequence s2, int max) {
+        return bounded(s1, s2, max, false);
+    }
+
+    /**
+     * Distance if it is at most {@code max}, otherwise {@code max + 1}. With
+     * {@code transpositions} a swap of two adjacent characters counts as one edit.
+     */
+    public static int bounded(CharSequence s1, CharSequence s2, int max, boolean transpositions) {
+        if (max < 0) {
+            throw new IllegalArgumentException("max must not be negative");
+        }
+        // Pattern is the shorter string, text the longer one
+        CharSequence pattern = s1.length() <= s2.length() ? s1 : s2;
+        CharSequence text = pattern == s1 ? s2 : s1;
+        int m = pattern.length();
+        int n = text.length();
+        if (n - m > max) {
+            return max + 1;
+        }
+        if (m == 0) {
+            return n;
+        }
+        return m <= Long.SIZE
+                ? bitParallel(pattern, text, max, transpositions)
+                : banded(pattern, text, max, transpositions);
+    }
 
-        // Create a DP table
-        int[][] dp = new int[m + 1][n + 1];
+    private static int bitParallel(CharSequence pattern, CharSequence text, int max, boolean transpositions) {
+        Workspace workspace = WORKSPACE.get();
+        int m = pattern.length();
+        int n = text.length();
+        workspace.load(pattern);
+        try {
+            long last = 1L << (m - 1);
+            long vp = m == Long.SIZE ? -1L : (1L << m) - 1;
+            long vn = 0;
+            long previousEq = 0;
+            long previousD0 = 0;
+            int score = m;
 
-        // Initialize the table
-        for (int i = 0; i <= m; i++) {
-            dp[i][0] = i;
+            for (int j = 0; j < n; j++) {
+                long eq = workspace.mask(text.charAt(j));
+                long d0 = (((eq & vp) + vp) ^ vp) | eq | vn;
+                if (transpositions) {
+                    d0 |= (((~previousD0) & eq) << 1) & previousEq;
+                    previousEq = eq;
+                    previousD0 = d0;
+                }
+                long hp = vn | ~(d0 | vp);
+                long hn = vp & d0;
+                if ((hp & last) != 0) {
+                    score++;
+                } else if ((hn & last) != 0) {
+                    score--;
+                }
+                // Each remaining column can lower the score by at most one
+                if (score - (n - j - 1) > max) {
+                    return max + 1;
+                }
+                hp = (hp << 1) | 1;
+                hn <<= 1;
+                vp = hn | ~(d0 | hp);
+                vn = hp & d0;
+            }
+            return Math.min(score, max + 1);
+        } finally {
+            workspace.clear(pattern);
         }
-        for (int j = 0; j <= n; j++) {
-            dp[0][j] = j;
+    }
+
+    private static int banded(CharSequence pattern, CharSequence text, int max, boolean transpositions) {
+        int m = pattern.length();
+        int n = text.length();
+        int infinity = max + 1;
+        int width = n + 2;
+        int[] rows = WORKSPACE.get().rows(3 * width);
+        int previous2 = 0;
+        int previous = width;
+        int current = 2 * width;
+
+        int top = Math.min(n, max);
+        for (int j = 0; j <= top; j++) {
+            rows[previous + j] = j;
         }
+        rows[previous + top + 1] = infinity;
 
-        // Fill the table
         for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1]; // No operation needed
-                } else {
-                    dp[i][j] = 1 + Math.min(dp[i - 1][j - 1], // Substitution
-                            Math.min(dp[i - 1][j], // Deletion
-                                    dp[i][j - 1])); // Insertion
+            int from = Math.max(1, i - max);
+            int to = Math.min(n, i + max);
+            rows[current + from - 1] = from == 1 ? i : infinity;
+            char a = pattern.charAt(i - 1);
+            int rowMin = infinity;
+            for (int j = from; j <= to; j++) {
+                char b = text.charAt(j - 1);
+                int cost = a == b ? 0 : 1;
+                int value = Math.min(rows[previous + j - 1] + cost,
+                        Math.min(rows[previous + j], rows[current + j - 1]) + 1);
+                if (transpositions && i > 1 && j > 1
+                        && a == text.charAt(j - 2) && pattern.charAt(i - 2) == b) {
+                    value = Math.min(value, rows[previous2 + j - 2] + 1);
+                }
+                rows[current + j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < n) {
+                rows[current + to + 1] = infinity;
+            }
+            if (rowMin > max) {
+                return infinity;
+            }
+            int recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(rows[previous + n], infinity);
+    }
+
+    /**
+     * Per-thread match vectors for the bit-parallel kernel and rows for the
+     * banded one. ASCII characters index a table directly; the few others a
+     * pattern may contain are looked up in a short list.
+     */
+    private static final class Workspace {
+        private final long[] ascii = new long[128];
+        private final char[] otherChars = new char[Long.SIZE];
+        private final long[] otherMasks = new long[Long.SIZE];
+        private int otherCount;
+        private int[] rows = new int[0];
+
+        void load(CharSequence pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                long bit = 1L << i;
+                if (c < ascii.length) {
+                    ascii[c] |= bit;
+                    continue;
+                }
+                int slot = indexOf(c);
+                if (slot < 0) {
+                    slot = otherCount++;
+                    otherChars[slot] = c;
+                    otherMasks[slot] = 0;
+                }
+                otherMasks[slot] |= bit;
+            }
+        }
+
+        long mask(char c) {
+            if (c < ascii.length) {
+                return ascii[c];
+            }
+            int slot = indexOf(c);
+            return slot < 0 ? 0 : otherMasks[slot];
+        }
+
+        void clear(CharSequence pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < ascii.length) {
+                    ascii[c] = 0;
                 }
             }
+            otherCount = 0;
+        }
+
+        int[] rows(int length) {
+            if (rows.length < length) {
+                rows = new int[Math.max(length, rows.length * 2)];
+            }
+            return rows;
         }
 
-        return dp[m][n];
+        private int indexOf(char c) {
+            for (int i = 0; i < otherCount; i++) {
+                if (otherChars[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
 }
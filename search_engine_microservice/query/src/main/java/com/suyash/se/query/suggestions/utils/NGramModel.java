@@ -1,38 +1,155 @@
 package com.suyash.se.query.suggestions.utils;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.springframework.stereotype.Component;
-
+/**
+ * Next-word model over the last {@code n - 1} words of a query, trained
+ * continuously from the query stream.
+ *
+ * <p>Observed n-grams are counted in a concurrent pending map. {@link #publish}
+ * folds them into the counts and builds a new immutable snapshot holding the
+ * {@link #TOP_K} most frequent next words per prefix, which readers pick up
+ * through a volatile reference; lookups never sort and never see a half
+ * updated model. Memory is bounded by {@code maxEntries}: when the counts
+ * grow past it, all counts are halved and n-grams that reach zero dropped,
+ * which also lets the model follow changing traffic.
+ */
 public class NGramModel {
-    private final Map<String, Map<String, Integer>> nGramMap = new HashMap<>();
+    public static final int TOP_K = 10;
+    private static final int DEFAULT_MAX_ENTRIES = 200_000;
+    private static final char SEPARATOR = '\u0000';
+
     private final int n;
+    private final int maxEntries;
+
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+    // Guarded by this; only publish reads or writes the counts
+    private final Map<String, Map<String, Long>> counts = new HashMap<>();
+    private int countedEntries;
+    private volatile Map<String, List<String>> snapshot = Collections.emptyMap();
 
     public NGramModel(int n) {
+        this(n, DEFAULT_MAX_ENTRIES);
+    }
+
+    public NGramModel(int n, int maxEntries) {
         this.n = n;
+        this.maxEntries = maxEntries;
     }
 
+    /**
+     * Count the query's n-grams and publish them right away
+     */
     public void train(List<String> queries) {
-        for (String query : queries) {
-            List<String> tokens = tokenize(query);
-            for (int i = 0; i <= tokens.size() - n; i++) {
-                String prefix = String.join(" ", tokens.subList(i, i + n - 1));
-                String nextWord = tokens.get(i + n - 1);
+        queries.forEach(this::observe);
+        publish();
+    }
 
-                nGramMap.computeIfAbsent(prefix, k -> new HashMap<>()).merge(nextWord, 1, Integer::sum);
+    /**
+     * Count the query's n-grams; they become visible on the next {@link #publish}
+     */
+    public void observe(String query) {
+        List<String> tokens = tokenize(query);
+        for (int i = 0; i <= tokens.size() - n; i++) {
+            String prefix = String.join(" ", tokens.subList(i, i + n - 1));
+            String nextWord = tokens.get(i + n - 1);
+            String key = prefix + SEPARATOR + nextWord;
+            LongAdder count = pending.get(key);
+            if (count == null) {
+                if (pending.size() >= maxEntries) {
+                    continue; // Publishing fell behind; drop the sample rather than grow
+                }
+                count = pending.computeIfAbsent(key, k -> new LongAdder());
             }
+            count.increment();
         }
     }
 
+    /**
+     * Fold the pending counts into the model and swap in a new snapshot
+     */
+    public synchronized void publish() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<String> touched = new HashSet<>();
+        for (Iterator<Map.Entry<String, LongAdder>> it = pending.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, LongAdder> entry = it.next();
+            it.remove();
+            String key = entry.getKey();
+            int separator = key.indexOf(SEPARATOR);
+            String prefix = key.substring(0, separator);
+            long added = entry.getValue().sum();
+            long total = counts.computeIfAbsent(prefix, k -> new HashMap<>())
+                    .merge(key.substring(separator + 1), added, Long::sum);
+            if (total == added) {
+                countedEntries++;
+            }
+            touched.add(prefix);
+        }
+
+        Map<String, List<String>> next;
+        if (countedEntries > maxEntries) {
+            prune();
+            next = new HashMap<>(counts.size() * 2);
+            for (String prefix : counts.keySet()) {
+                next.put(prefix, topContinuations(counts.get(prefix)));
+            }
+        } else {
+            // Copy on write: only prefixes that received new counts are re-ranked
+            next = new HashMap<>(snapshot);
+            for (String prefix : touched) {
+                next.put(prefix, topContinuations(counts.get(prefix)));
+            }
+        }
+        snapshot = Collections.unmodifiableMap(next);
+    }
+
     public List<String> getSuggestions(String prefix) {
-        Map<String, Integer> suggestions = nGramMap.getOrDefault(prefix, new HashMap<>());
-        return suggestions.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+        return snapshot.getOrDefault(String.join(" ", tokenize(prefix)), Collections.emptyList());
+    }
+
+    /**
+     * Number of counted n-grams
+     */
+    public synchronized int size() {
+        return countedEntries;
+    }
+
+    private void prune() {
+        while (countedEntries > maxEntries) {
+            for (Iterator<Map<String, Long>> prefixes = counts.values().iterator(); prefixes.hasNext();) {
+                Map<String, Long> continuations = prefixes.next();
+                for (Iterator<Map.Entry<String, Long>> it = continuations.entrySet().iterator(); it.hasNext();) {
+                    Map.Entry<String, Long> entry = it.next();
+                    long halved = entry.getValue() >>> 1;
+                    if (halved == 0) {
+                        it.remove();
+                        countedEntries--;
+                    } else {
+                        entry.setValue(halved);
+                    }
+                }
+                if (continuations.isEmpty()) {
+                    prefixes.remove();
+                }
+            }
+        }
+    }
+
+    private static List<String> topContinuations(Map<String, Long> continuations) {
+        return continuations.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP_K)
                 .map(Map.Entry::getKey)
                 .toList();
     }
 
     private List<String> tokenize(String text) {
-        return Arrays.asList(text.toLowerCase().split("\\s+"));
+        String trimmed = text.toLowerCase().trim();
+        return trimmed.isEmpty() ? Collections.emptyList() : Arrays.asList(trimmed.split("\\s+"));
     }
-}
\ No newline at end of file
+}
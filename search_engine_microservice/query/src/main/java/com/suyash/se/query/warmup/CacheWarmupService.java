@@ -0,0 +1,120 @@
+package com.suyash.se.query.warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import com.suyash.se.query.query.QueryService;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precomputes the results of the currently popular queries before the node
+ * reports ready. Runs as an application runner, i.e. after the context has
+ * started but before readiness switches to accepting traffic.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService implements ApplicationRunner {
+
+    public enum WarmupState {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        DISABLED
+    }
+
+    private final QueryService queryService;
+    private final QueryPopularityService popularityService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${search.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.warmup.queries:200}")
+    private int queryLimit;
+
+    @Value("${search.warmup.window-hours:24}")
+    private int windowHours;
+
+    @Value("${search.warmup.concurrency:8}")
+    private int concurrency;
+
+    @Value("${search.warmup.budget:30s}")
+    private Duration budget;
+
+    @Getter
+    private volatile WarmupState state = WarmupState.PENDING;
+    @Getter
+    private volatile int plannedQueries;
+    @Getter
+    private volatile long durationMillis;
+    private final AtomicInteger warmedQueries = new AtomicInteger();
+
+    public int getWarmedQueries() {
+        return warmedQueries.get();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            state = WarmupState.DISABLED;
+            return;
+        }
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        state = WarmupState.RUNNING;
+        long start = System.currentTimeMillis();
+        try {
+            warmUp();
+        } catch (Exception e) {
+            // Warm-up only saves latency; never keep the node out of rotation because of it
+            log.warn("Cache warm-up failed: {}", e.getMessage());
+        } finally {
+            durationMillis = System.currentTimeMillis() - start;
+            state = WarmupState.COMPLETED;
+            log.info("Cache warm-up finished: {} of {} queries in {} ms", warmedQueries.get(), plannedQueries,
+                    durationMillis);
+        }
+    }
+
+    private void warmUp() throws InterruptedException {
+        List<String> queries = popularityService.topQueries(queryLimit, windowHours);
+        plannedQueries = queries.size();
+        if (queries.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            List<Callable<Void>> tasks = queries.stream().<Callable<Void>>map(query -> () -> {
+                queryService.warmQuery(query);
+                warmedQueries.incrementAndGet();
+                return null;
+            }).toList();
+            // Queries still running when the budget is spent are cancelled
+            List<Future<Void>> futures = executor.invokeAll(tasks, budget.toMillis(), TimeUnit.MILLISECONDS);
+            long cancelled = futures.stream().filter(Future::isCancelled).count();
+            if (cancelled > 0) {
+                log.warn("Cache warm-up budget of {} ms exhausted, skipped {} queries", budget.toMillis(), cancelled);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
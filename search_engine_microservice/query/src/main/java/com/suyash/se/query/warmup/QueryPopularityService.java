@@ -0,0 +1,158 @@
+package com.suyash.se.query.warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import com.suyash.se.query.logs.QueryLogEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rolling windows of query counts: hourly Redis sorted sets filled from the
+ * query-logs topic. Searched queries are counted by their normalized form and
+ * kept for a day, so that the currently popular queries can be read back
+ * cheaply. Queries that returned results are also counted in their display
+ * form, kept for a week, as the source of suggestions and corrections.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QueryPopularityService {
+
+    private static final String KEY_PREFIX = "query_popularity:";
+    private static final Duration BUCKET_TTL = Duration.ofHours(25);
+    private static final String SUGGESTION_KEY_PREFIX = "suggestion_popularity:";
+    private static final Duration SUGGESTION_BUCKET_TTL = Duration.ofDays(7).plusHours(1);
+    private static final int SCAN_COUNT = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * Add a batch of query log events to the windows of the hours they happened
+     * in, with one pipelined ZINCRBY per distinct query and bucket
+     */
+    public void recordBatch(List<QueryLogEvent> events) {
+        Map<String, Map<String, Long>> increments = new HashMap<>();
+        for (QueryLogEvent event : events) {
+            long hour = event.getTimestamp() / TimeUnit.HOURS.toMillis(1);
+            if (event.getNormalizedQuery() != null && !event.getNormalizedQuery().isEmpty()) {
+                increments.computeIfAbsent(bucketKey(hour), k -> new HashMap<>())
+                        .merge(event.getNormalizedQuery(), 1L, Long::sum);
+            }
+            if (event.getResultCount() != null && event.getResultCount() > 0
+                    && event.getQuery() != null && !event.getQuery().isEmpty()) {
+                increments.computeIfAbsent(SUGGESTION_KEY_PREFIX + hour, k -> new HashMap<>())
+                        .merge(event.getQuery(), 1L, Long::sum);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <KK, VV> Object execute(RedisOperations<KK, VV> operations) throws DataAccessException {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    increments.forEach((key, counts) -> {
+                        counts.forEach((member, count) -> ops.opsForZSet().incrementScore(key, member, count));
+                        ops.expire(key, key.startsWith(KEY_PREFIX) ? BUCKET_TTL : SUGGESTION_BUCKET_TTL);
+                    });
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Error recording {} query log events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * The most searched normalized queries over the last {@code hours} hours, most popular first
+     */
+    public List<String> topQueries(int limit, int hours) {
+        return top(KEY_PREFIX, limit, hours);
+    }
+
+    /**
+     * The most searched queries with results over the last {@code hours} hours, in display form
+     */
+    public List<String> topSuggestions(int limit, int hours) {
+        return top(SUGGESTION_KEY_PREFIX, limit, hours);
+    }
+
+    private List<String> top(String prefix, int limit, int hours) {
+        Map<String, Double> counts = new HashMap<>();
+        long hour = currentHour();
+        for (int i = 0; i < hours; i++) {
+            try {
+                // Each bucket's top entries are enough to find the overall top entries approximately
+                Set<ZSetOperations.TypedTuple<Object>> top = redisTemplate.opsForZSet()
+                        .reverseRangeWithScores(prefix + (hour - i), 0, limit - 1L);
+                if (top == null) {
+                    continue;
+                }
+                for (ZSetOperations.TypedTuple<Object> entry : top) {
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        counts.merge(entry.getValue().toString(), entry.getScore(), Double::sum);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Error reading query popularity: {}", e.getMessage());
+                break;
+            }
+        }
+
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        return entries.stream().limit(limit).map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Total count of every suggestion over the last {@code hours} hours. Buckets
+     * are read with ZSCAN, which is not disturbed by concurrent increments the
+     * way paging by rank is; members it returns twice are counted once.
+     */
+    public Map<String, Long> suggestionCounts(int hours) {
+        Map<String, Long> counts = new HashMap<>();
+        long hour = currentHour();
+        ScanOptions options = ScanOptions.scanOptions().count(SCAN_COUNT).build();
+        for (int i = 0; i < hours; i++) {
+            Map<String, Long> bucket = new HashMap<>();
+            try (Cursor<ZSetOperations.TypedTuple<Object>> cursor = redisTemplate.opsForZSet()
+                    .scan(SUGGESTION_KEY_PREFIX + (hour - i), options)) {
+                while (cursor.hasNext()) {
+                    ZSetOperations.TypedTuple<Object> entry = cursor.next();
+                    if (entry.getValue() != null && entry.getScore() != null) {
+                        bucket.put(entry.getValue().toString(), entry.getScore().longValue());
+                    }
+                }
+            }
+            bucket.forEach((query, count) -> counts.merge(query, count, Long::sum));
+        }
+        return counts;
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / TimeUnit.HOURS.toMillis(1);
+    }
+
+    private static String bucketKey(long hour) {
+        return KEY_PREFIX + hour;
+    }
+}
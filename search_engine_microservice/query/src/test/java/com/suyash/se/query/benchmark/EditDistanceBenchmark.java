@@ -0,0 +1,134 @@
+package com.suyash.se.query.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.suyash.se.query.suggestions.utils.EditDistance;
+
+/**
+ * Compares the full-table DP previously used by EditDistance with the bounded
+ * kernels, checking a query against a batch of candidates with the spelling
+ * correction threshold of {@code length / 3}. Half of the candidates are near
+ * misspellings, the rest unrelated strings of similar length.
+ * Run {@link #main} from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EditDistanceBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ";
+    private static final int CANDIDATES = 1000;
+
+    /** 12 and 40 take the bit-parallel path, 120 the banded DP */
+    @Param({"12", "40", "120"})
+    private int length;
+
+    private String query;
+    private String[] candidates;
+    private int threshold;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        query = randomString(random, length);
+        threshold = length / 3;
+        candidates = new String[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            candidates[i] = i % 2 == 0
+                    ? misspell(random, query)
+                    : randomString(random, length + random.nextInt(5) - 2);
+        }
+    }
+
+    @Benchmark
+    public void fullTable(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(fullTable(query, candidate) <= threshold);
+        }
+    }
+
+    @Benchmark
+    public void bounded(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(EditDistance.bounded(query, candidate, threshold) <= threshold);
+        }
+    }
+
+    @Benchmark
+    public void boundedWithTranspositions(Blackhole blackhole) {
+        for (String candidate : candidates) {
+            blackhole.consume(EditDistance.bounded(query, candidate, threshold, true) <= threshold);
+        }
+    }
+
+    private static int fullTable(String s1, String s2) {
+        int m = s1.length();
+        int n = s2.length();
+        int[][] dp = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
+                    dp[i][j] = dp[i - 1][j - 1];
+                } else {
+                    dp[i][j] = 1 + Math.min(dp[i - 1][j - 1], Math.min(dp[i - 1][j], dp[i][j - 1]));
+                }
+            }
+        }
+        return dp[m][n];
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private static String misspell(Random random, String word) {
+        StringBuilder builder = new StringBuilder(word);
+        int edits = 1 + random.nextInt(Math.max(1, word.length() / 3));
+        for (int i = 0; i < edits && builder.length() > 1; i++) {
+            int position = random.nextInt(builder.length());
+            char replacement = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> builder.deleteCharAt(position);
+                case 1 -> builder.insert(position, replacement);
+                default -> builder.setCharAt(position, replacement);
+            }
+        }
+        return builder.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EditDistanceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.suyash.se.query.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.suyash.se.query.query.utils.Postings;
+
+/**
+ * Compares the boxed HashSet/retainAll intersection previously used by
+ * QueryService with galloping intersection over sorted int[] postings, on a
+ * rare term combined with a common one.
+ * Run {@link #main} from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PostingsIntersectionBenchmark {
+
+    @Param({"100", "1000"})
+    private int rareTermSize;
+
+    @Param({"100000", "1000000"})
+    private int commonTermSize;
+
+    private List<Integer> rareBoxed;
+    private List<Integer> commonBoxed;
+    private List<int[]> postings;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int universe = commonTermSize * 4;
+        int[] rare = random.ints(rareTermSize, 0, universe).toArray();
+        int[] common = random.ints(commonTermSize, 0, universe).toArray();
+
+        rareBoxed = new ArrayList<>(rareTermSize);
+        for (int docId : rare) {
+            rareBoxed.add(docId);
+        }
+        commonBoxed = new ArrayList<>(commonTermSize);
+        for (int docId : common) {
+            commonBoxed.add(docId);
+        }
+        postings = List.of(Postings.sortedUnique(common), Postings.sortedUnique(rare));
+    }
+
+    @Benchmark
+    public Set<Integer> hashSetRetainAll() {
+        Set<Integer> result = null;
+        for (List<Integer> docIds : List.of(commonBoxed, rareBoxed)) {
+            Set<Integer> set = new HashSet<>(docIds);
+            if (result == null) {
+                result = new HashSet<>(set);
+            } else {
+                result.retainAll(set);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int[] gallopingIntersection() {
+        return Postings.intersect(postings);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PostingsIntersectionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.suyash.se.query.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LRUCacheTest {
+
+    private LRUCache<String, Integer> cache;
+
+    @AfterEach
+    void shutdown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void keepsEntriesUpToCapacity() {
+        cache = new LRUCache<>(100, Duration.ofMinutes(5), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        for (int i = 0; i < 100; i++) {
+            cache.put("key" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, cache.get("key" + i));
+        }
+
+        for (int i = 100; i < 1000; i++) {
+            cache.put("key" + i, i);
+        }
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+    }
+
+    @Test
+    void frequentlyReadEntriesSurviveAScan() {
+        cache = new LRUCache<>(100, Duration.ofMinutes(5), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        for (int i = 0; i < 80; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 80; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        // One-off keys land in the window and lose admission against the hot entries
+        for (int i = 0; i < 1000; i++) {
+            cache.put("scan" + i, i);
+        }
+
+        int alive = 0;
+        for (int i = 0; i < 80; i++) {
+            if (cache.get("hot" + i) != null) {
+                alive++;
+            }
+        }
+        assertTrue(alive >= 72, "only " + alive + " of 80 hot entries survived");
+    }
+
+    @Test
+    void overwriteReplacesValueWithoutGrowing() {
+        cache = new LRUCache<>(10, Duration.ofMinutes(5), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        cache.put("key", 1);
+        cache.put("key", 2);
+        assertEquals(2, cache.get("key"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void putIfAbsentKeepsTheFirstLiveValue() {
+        cache = new LRUCache<>(10, Duration.ofMinutes(5), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        assertNull(cache.putIfAbsent("key", 1));
+        assertEquals(1, cache.putIfAbsent("key", 2));
+        assertEquals(1, cache.get("key"));
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        cache = new LRUCache<>(10, Duration.ofMillis(50), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        cache.put("key", 1);
+        assertEquals(1, cache.get("key"));
+
+        Thread.sleep(120);
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void accessExtendsLifetimeOnlyAfterAccess() throws InterruptedException {
+        cache = new LRUCache<>(10, Duration.ofMillis(200), LRUCache.ExpirationPolicy.AFTER_ACCESS, null, null);
+        cache.put("read", 1);
+        cache.put("idle", 2);
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(60);
+            assertEquals(1, cache.get("read"));
+        }
+        assertNull(cache.get("idle"));
+    }
+
+    @Test
+    void restoreSkipsExpiredAndPresentEntries() {
+        cache = new LRUCache<>(10, Duration.ofMinutes(1), LRUCache.ExpirationPolicy.AFTER_WRITE, null, null);
+        long now = System.currentTimeMillis();
+        cache.put("live", 1);
+
+        assertFalse(cache.restore("live", 2, now));
+        assertFalse(cache.restore("old", 3, now - Duration.ofMinutes(2).toMillis()));
+        assertTrue(cache.restore("restored", 4, now));
+
+        assertEquals(1, cache.get("live"));
+        assertNull(cache.get("old"));
+        assertEquals(4, cache.get("restored"));
+    }
+}
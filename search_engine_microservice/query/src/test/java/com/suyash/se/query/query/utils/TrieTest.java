@@ -0,0 +1,115 @@
+package com.suyash.se.query.query.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class TrieTest {
+
+    @Test
+    void suggestsHeaviestWordsFirst() {
+        Trie trie = new Trie();
+        trie.insert("java", 5);
+        trie.insert("javascript", 9);
+        trie.insert("jvm", 1);
+        trie.insert("kotlin", 7);
+
+        assertEquals(List.of("javascript", "java", "jvm"), trie.getSuggestions("j"));
+        assertEquals(List.of("javascript", "java"), trie.getSuggestions("jav"));
+        assertEquals(List.of("javascript"), trie.getSuggestions("javas"));
+        assertEquals(List.of("javascript"), trie.getSuggestions("j", 1));
+        assertTrue(trie.getSuggestions("python").isEmpty());
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void splitsEdgesWithoutLosingWords() {
+        Trie trie = new Trie();
+        trie.insert("spring boot", 3);
+        trie.insert("spring", 2);
+        trie.insert("spring batch", 1);
+        trie.insert("spr", 4);
+
+        assertEquals(List.of("spr", "spring boot", "spring", "spring batch"), trie.getSuggestions("s"));
+        assertEquals(List.of("spring boot", "spring batch"), trie.getSuggestions("spring "));
+        assertTrue(trie.getSuggestions("springs").isEmpty());
+    }
+
+    @Test
+    void recordedWordsAppearAfterPublish() {
+        Trie trie = new Trie();
+        trie.insert("java", 2);
+        trie.record("javascript");
+        trie.record("javascript");
+        trie.record("javascript");
+
+        assertEquals(List.of("java"), trie.getSuggestions("ja"));
+        trie.publish();
+        assertEquals(List.of("javascript", "java"), trie.getSuggestions("ja"));
+    }
+
+    @Test
+    void dropsLightestWordsBeyondMaxWords() {
+        Trie trie = new Trie(3);
+        trie.insert("alpha", 8);
+        trie.insert("beta", 6);
+        trie.insert("gamma", 4);
+        trie.insert("delta", 1);
+
+        assertEquals(3, trie.size());
+        assertEquals(List.of("alpha", "beta", "gamma"), trie.getSuggestions(""));
+        assertTrue(trie.getSuggestions("d").isEmpty());
+
+        // Weights were halved to 4, 3 and 2, so a later insert can overtake them
+        trie.insert("gamma", 3);
+        assertEquals(List.of("gamma", "alpha", "beta"), trie.getSuggestions(""));
+    }
+
+    @Test
+    void matchesBruteForceTopK() {
+        Random random = new Random(7);
+        Trie trie = new Trie();
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            long weight = 1 + random.nextInt(5);
+            trie.insert(word.toString(), weight);
+            weights.merge(word.toString(), weight, Long::sum);
+        }
+
+        List<String> prefixes = new ArrayList<>(List.of(""));
+        weights.keySet().forEach(word -> prefixes.add(word.substring(0, Math.min(word.length(), 3))));
+        for (String prefix : prefixes) {
+            List<String> actual = trie.getSuggestions(prefix);
+            List<Long> expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted((a, b) -> Long.compare(b, a))
+                    .limit(Trie.TOP_K)
+                    .collect(Collectors.toList());
+            // Ties may come in any order, so compare the weights
+            assertEquals(expected, actual.stream().map(weights::get).collect(Collectors.toList()), prefix);
+            actual.forEach(word -> assertTrue(word.startsWith(prefix), word));
+        }
+    }
+
+    @Test
+    void displayPrefixKeepsTrailingSeparator() {
+        assertEquals("java", QueryNormalizer.displayPrefix("  Java"));
+        assertEquals("java ", QueryNormalizer.displayPrefix("Java "));
+        assertEquals("spring boot ", QueryNormalizer.displayPrefix("Spring,  Boot-"));
+        assertEquals("", QueryNormalizer.displayPrefix("   "));
+    }
+}
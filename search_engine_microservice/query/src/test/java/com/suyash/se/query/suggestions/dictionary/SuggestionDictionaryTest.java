@@ -0,0 +1,135 @@
+package com.suyash.se.query.suggestions.dictionary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SuggestionDictionaryTest {
+
+    private static final String[] SYLLABLES = { "a", "ab", "jav", "a ", "spr", "ing", "\u00e9", "\u65e5\u672c", "x" };
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("suggestion-dictionary");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (var files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsWeightsAndCompletions() throws IOException {
+        Map<String, Long> weights = randomWeights(new Random(42), 5_000);
+        Path path = directory.resolve("suggestions.dict");
+
+        assertEquals(weights.size(), SuggestionDictionary.write(weights, path));
+        SuggestionDictionary dictionary = SuggestionDictionary.open(path);
+
+        assertEquals(weights.size(), dictionary.size());
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            assertEquals(entry.getValue().longValue(), dictionary.weight(entry.getKey()), entry.getKey());
+        }
+        assertEquals(0, dictionary.weight("not a suggestion"));
+
+        List<String> prefixes = new ArrayList<>(List.of("", "a", "j", "ja", "jav", "java", "spr", "\u00e9", "\u65e5", "zz"));
+        for (String query : weights.keySet()) {
+            for (int length = 1; length <= Math.min(query.length(), 6); length++) {
+                prefixes.add(query.substring(0, length));
+            }
+        }
+        for (String prefix : prefixes) {
+            for (int limit : new int[] { 1, 5, SuggestionDictionary.TOP_K, 25 }) {
+                assertEquals(expectedCompletions(weights, prefix, limit), dictionary.complete(prefix, limit),
+                        prefix + " / " + limit);
+            }
+        }
+    }
+
+    @Test
+    void skipsEmptyAndNonPositiveEntries() throws IOException {
+        Map<String, Long> weights = new HashMap<>();
+        weights.put("java", 3L);
+        weights.put("", 5L);
+        weights.put("javascript", 0L);
+        weights.put("jvm", -1L);
+        Path path = directory.resolve("suggestions.dict");
+
+        assertEquals(1, SuggestionDictionary.write(weights, path));
+        SuggestionDictionary dictionary = SuggestionDictionary.open(path);
+
+        assertEquals(List.of("java"), dictionary.complete("j", 10));
+        assertEquals(0, dictionary.weight("javascript"));
+    }
+
+    @Test
+    void emptyDictionaryCompletesNothing() throws IOException {
+        Path path = directory.resolve("suggestions.dict");
+        SuggestionDictionary.write(Map.of(), path);
+
+        assertEquals(0, SuggestionDictionary.open(path).size());
+        assertTrue(SuggestionDictionary.open(path).complete("a", 10).isEmpty());
+        assertTrue(SuggestionDictionary.EMPTY.complete("a", 10).isEmpty());
+    }
+
+    @Test
+    void rewriteReplacesPreviousFile() throws IOException {
+        Path path = directory.resolve("suggestions.dict");
+        SuggestionDictionary.write(Map.of("java", 1L), path);
+        SuggestionDictionary.write(Map.of("kotlin", 2L), path);
+
+        SuggestionDictionary dictionary = SuggestionDictionary.open(path);
+        assertEquals(0, dictionary.weight("java"));
+        assertEquals(2, dictionary.weight("kotlin"));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    // Distinct weights keep the expected order independent of tie-breaking
+    private static Map<String, Long> randomWeights(Random random, int count) {
+        Map<String, Long> weights = new HashMap<>();
+        long weight = 1;
+        while (weights.size() < count) {
+            StringBuilder query = new StringBuilder();
+            int parts = 1 + random.nextInt(4);
+            for (int i = 0; i < parts; i++) {
+                query.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (!weights.containsKey(query.toString())) {
+                weights.put(query.toString(), weight * 7 + random.nextInt(7));
+                weight++;
+            }
+        }
+        return weights;
+    }
+
+    private static List<String> expectedCompletions(Map<String, Long> weights, String prefix, int limit) {
+        return weights.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
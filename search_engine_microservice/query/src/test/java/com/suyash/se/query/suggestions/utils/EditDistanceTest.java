@@ -0,0 +1,112 @@
+package com.suyash.se.query.suggestions.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EditDistanceTest {
+
+    // ASCII plus Latin-1, CJK and a surrogate pair, which take the non-ASCII path of the bit-vector table
+    private static final String ALPHABET = "abcde\u00e9\u00fc\u65e5\u672c\ud83d\ude00";
+
+    @Test
+    void knownDistances() {
+        assertEquals(0, EditDistance.calculate("", ""));
+        assertEquals(3, EditDistance.calculate("", "abc"));
+        assertEquals(3, EditDistance.calculate("kitten", "sitting"));
+        assertEquals(2, EditDistance.calculate("ca", "ac"));
+        assertEquals(1, EditDistance.bounded("ca", "ac", 5, true));
+        assertEquals(3, EditDistance.bounded("ca", "abc", 5, true));
+        assertEquals(1, EditDistance.calculate("caf\u00e9", "cafe"));
+    }
+
+    @Test
+    void boundedReportsMaxPlusOneBeyondThreshold() {
+        assertEquals(3, EditDistance.bounded("kitten", "sitting", 3));
+        assertEquals(3, EditDistance.bounded("kitten", "sitting", 2));
+        assertEquals(1, EditDistance.bounded("kitten", "sitting", 0));
+        assertThrows(IllegalArgumentException.class, () -> EditDistance.bounded("a", "b", -1));
+    }
+
+    @Test
+    void matchesReferenceOnShortStrings() {
+        compareWithReference(new Random(1), 50_000, 12);
+    }
+
+    @Test
+    void matchesReferenceAcrossTheBitVectorLimit() {
+        // Lengths around 64 switch between the bit-vector and the banded DP
+        compareWithReference(new Random(2), 2_000, 150);
+    }
+
+    private static void compareWithReference(Random random, int cases, int maxLength) {
+        for (int i = 0; i < cases; i++) {
+            String a = randomString(random, maxLength);
+            String b = random.nextInt(3) == 0 ? mutate(random, a) : randomString(random, maxLength);
+            for (boolean transpositions : new boolean[] { false, true }) {
+                int expected = reference(a, b, transpositions);
+                String pair = a + " / " + b + " / " + transpositions;
+                assertEquals(expected, EditDistance.bounded(a, b, Math.max(a.length(), b.length()), transpositions),
+                        pair);
+                int max = random.nextInt(expected + 2);
+                assertEquals(Math.min(expected, max + 1), EditDistance.bounded(a, b, max, transpositions), pair);
+                assertEquals(Math.min(expected, max + 1), EditDistance.bounded(b, a, max, transpositions), pair);
+            }
+            assertEquals(reference(a, b, false), EditDistance.calculate(a, b));
+        }
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    // Few random edits, so small distances and transpositions are common
+    private static String mutate(Random random, String text) {
+        StringBuilder builder = new StringBuilder(text);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits && builder.length() > 1; i++) {
+            int position = random.nextInt(builder.length() - 1);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    char c = builder.charAt(position);
+                    builder.setCharAt(position, builder.charAt(position + 1));
+                    builder.setCharAt(position + 1, c);
+                }
+                case 1 -> builder.deleteCharAt(position);
+                case 2 -> builder.insert(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                default -> builder.setCharAt(position, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return builder.toString();
+    }
+
+    // Textbook full-matrix DP, optimal string alignment when transpositions are allowed
+    private static int reference(String a, String b, boolean transpositions) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (transpositions && i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+                        && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}